@@ -0,0 +1,58 @@
+package de.hanneseilers.easyprinter.benchmarks;
+
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+/**
+ * Content, fonts and page formats used by benchmarks.
+ */
+final class BenchmarkContent {
+
+	static final String HEADER = "Nightly Report\nGenerated by jEasyPrinter";
+	static final String FOOTER = "Confidential - internal use only";
+	
+	private BenchmarkContent() {}
+	
+	/**
+	 * Creates content text of log like lines.
+	 * @param aLines	Number of lines.
+	 * @return	{@link String} of lines separated by {@code \n}.
+	 */
+	static String createContent(int aLines){
+		StringBuilder vContent = new StringBuilder(aLines * 64);
+		for( int i=0; i < aLines; i++ ){
+			vContent.append("2016-04-06 12:00:").append(i % 60).append(" INFO  [worker-").append(i % 32)
+				.append("] processed record ").append(i).append(" in ").append(i % 997).append(" ms\n");
+		}
+		
+		return vContent.toString();
+	}
+	
+	/**
+	 * @param aName	Name of standard 14 font, e.g. {@code HELVETICA}.
+	 * @return	{@link PDFont} of name.
+	 */
+	static PDFont font(String aName){
+		switch( aName ){
+		case "HELVETICA":	return PDType1Font.HELVETICA;
+		case "TIMES_ROMAN":	return PDType1Font.TIMES_ROMAN;
+		case "COURIER":		return PDType1Font.COURIER;
+		default:			throw new IllegalArgumentException("Unknown font " + aName);
+		}
+	}
+	
+	/**
+	 * @param aName	Name of page format, e.g. {@code A4}.
+	 * @return	{@link PDRectangle} of page format.
+	 */
+	static PDRectangle pageFormat(String aName){
+		switch( aName ){
+		case "A4":		return PDRectangle.A4;
+		case "A5":		return PDRectangle.A5;
+		case "LETTER":	return PDRectangle.LETTER;
+		default:		throw new IllegalArgumentException("Unknown page format " + aName);
+		}
+	}
+	
+}
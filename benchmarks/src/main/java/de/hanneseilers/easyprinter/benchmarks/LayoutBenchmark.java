@@ -0,0 +1,106 @@
+package de.hanneseilers.easyprinter.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.hanneseilers.easyprinter.EasyPrinter;
+import de.hanneseilers.easyprinter.LineIndex;
+import de.hanneseilers.easyprinter.LineSource;
+import de.hanneseilers.easyprinter.StringLineSource;
+
+/**
+ * Benchmarks splitting content into lines and computing the page layout (max lines, header and footer positions).
+ * Iterating a {@link LineIndex} is expected to allocate nothing, check with {@code -prof gc}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LayoutBenchmark {
+
+	@Param({"100", "10000", "1000000"})
+	private int lines;
+	
+	@Param({"A4", "LETTER", "A5"})
+	private String pageFormat;
+	
+	private String mContent;
+	private LineIndex mContentIndex;
+	private EasyPrinter mPrinter;
+	
+	@Setup
+	public void setup(){
+		mContent = BenchmarkContent.createContent(lines);
+		mContentIndex = new LineIndex(mContent);
+		mPrinter = new EasyPrinter(mContent, BenchmarkContent.HEADER, BenchmarkContent.FOOTER);
+		mPrinter.setPageFormat( BenchmarkContent.pageFormat(pageFormat) );
+	}
+	
+	/**
+	 * Reads all content lines, as done while filling pages.
+	 */
+	@Benchmark
+	public void contentLines(Blackhole aBlackhole) throws IOException{
+		StringLineSource vSource = new StringLineSource(mContent);
+		CharSequence vLine;
+		while( (vLine = vSource.nextLine()) != null ){
+			aBlackhole.consume(vLine);
+		}
+	}
+	
+	/**
+	 * Builds line index of content, as done once per content change.
+	 */
+	@Benchmark
+	public LineIndex buildLineIndex(){
+		return new LineIndex(mContent);
+	}
+	
+	/**
+	 * Reads all content lines of a line index.
+	 */
+	@Benchmark
+	public void indexedContentLines(Blackhole aBlackhole){
+		LineSource vSource = mContentIndex.openLines();
+		try{
+			CharSequence vLine;
+			while( (vLine = vSource.nextLine()) != null ){
+				aBlackhole.consume(vLine.length());
+			}
+		} catch(IOException e){
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Computes max lines of a changed layout, including header and footer positions.
+	 */
+	@Benchmark
+	public int maxLines(){
+		mPrinter.setHeader(BenchmarkContent.HEADER);
+		return mPrinter.getMaxLines();
+	}
+	
+	/**
+	 * Reads max lines of an unchanged, already compiled layout.
+	 */
+	@Benchmark
+	public int maxLinesCompiled(){
+		return mPrinter.getMaxLines();
+	}
+	
+}
@@ -0,0 +1,63 @@
+package de.hanneseilers.easyprinter.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.hanneseilers.easyprinter.GlyphWidthCache;
+
+/**
+ * Benchmarks measuring text width, as done for centering header and footer lines and for word wrap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeasurementBenchmark {
+
+	@Param({"HELVETICA", "TIMES_ROMAN", "COURIER"})
+	private String font;
+	
+	@Param({"Nightly Report", "2016-04-06 12:00:00 INFO  [worker-1] processed record 4711 in 42 ms"})
+	private String text;
+	
+	private PDFont mFont;
+	private GlyphWidthCache mWidths;
+	
+	@Setup
+	public void setup() throws IOException{
+		mFont = BenchmarkContent.font(font);
+		mWidths = GlyphWidthCache.forFont(mFont);
+		mWidths.warmUp();
+	}
+	
+	/**
+	 * Measures text using font metrics.
+	 */
+	@Benchmark
+	public float fontStringWidth() throws IOException{
+		return mFont.getStringWidth(text) / 1000f * 12;
+	}
+	
+	/**
+	 * Measures text using cached glyph widths.
+	 */
+	@Benchmark
+	public float cachedStringWidth() throws IOException{
+		return mWidths.getStringWidth(text, 12);
+	}
+	
+}
@@ -0,0 +1,94 @@
+package de.hanneseilers.easyprinter.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.hanneseilers.easyprinter.EasyPrinter;
+import de.hanneseilers.easyprinter.PageLayout;
+import de.hanneseilers.easyprinter.StringLineSource;
+
+/**
+ * Benchmarks rendering complete documents to PDF.
+ * Reports rendered pages per second as secondary {@code pages} result.
+ * Run with {@code -prof gc} to get allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx4g", "-Djava.awt.headless=true"})
+public class RenderBenchmark {
+
+	@Param({"1", "100", "5000", "50000"})
+	private int pages;
+	
+	@Param({"HELVETICA", "COURIER"})
+	private String font;
+	
+	@Param({"A4", "LETTER"})
+	private String pageFormat;
+	
+	private String mContent;
+	private PageLayout mPageLayout;
+	private int mPageCount;
+	
+	/**
+	 * Counts rendered pages, reported per second.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class PageCounter {
+		public long pages;
+		
+		@Setup(Level.Iteration)
+		public void reset(){
+			pages = 0;
+		}
+	}
+	
+	@Setup
+	public void setup(){
+		EasyPrinter vPrinter = new EasyPrinter("", BenchmarkContent.HEADER, BenchmarkContent.FOOTER);
+		vPrinter.setFont( BenchmarkContent.font(font) );
+		vPrinter.setPageFormat( BenchmarkContent.pageFormat(pageFormat) );
+		mPageLayout = vPrinter.getPageLayout();
+		mContent = BenchmarkContent.createContent(pages * mPageLayout.getMaxLines());
+		mPageCount = pages;
+	}
+	
+	/**
+	 * Renders content to a PDF stream that discards all bytes.
+	 */
+	@Benchmark
+	public void render(PageCounter aCounter) throws IOException{
+		mPageLayout.render(new StringLineSource(mContent), new NullOutputStream());
+		aCounter.pages += mPageCount;
+	}
+	
+	/**
+	 * {@link OutputStream} discarding all bytes.
+	 */
+	private static final class NullOutputStream extends OutputStream {
+		@Override
+		public void write(int aByte) {}
+		
+		@Override
+		public void write(byte[] aBytes, int aOffset, int aLength) {}
+	}
+	
+}
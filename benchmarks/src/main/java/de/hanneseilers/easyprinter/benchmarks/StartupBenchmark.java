@@ -0,0 +1,67 @@
+package de.hanneseilers.easyprinter.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.hanneseilers.easyprinter.EasyPrinter;
+
+/**
+ * Benchmarks time to first byte of the first print job in a fresh JVM, as seen by short-lived command line tools.
+ * Every fork measures a single render, compare {@code coldFirstRender} with {@code firstRenderAfterWarmUp}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 20, jvmArgs = {"-Djava.awt.headless=true"})
+public class StartupBenchmark {
+	
+	/**
+	 * Calls {@link EasyPrinter#warmUp()} before the measured render.
+	 */
+	@State(Scope.Benchmark)
+	public static class WarmedUp {
+		
+		@Setup(Level.Trial)
+		public void warmUp(){
+			if( !EasyPrinter.warmUp() ){
+				throw new IllegalStateException("Warm up failed");
+			}
+		}
+	}
+	
+	/**
+	 * Renders a one page document in a fresh JVM, loading fonts and classes on demand.
+	 */
+	@Benchmark
+	public byte[] coldFirstRender(){
+		return render();
+	}
+	
+	/**
+	 * Renders a one page document in a fresh JVM after warm up.
+	 */
+	@Benchmark
+	public byte[] firstRenderAfterWarmUp(WarmedUp aWarmedUp){
+		return render();
+	}
+	
+	/**
+	 * @return	{@code byte} array of rendered PDF document.
+	 */
+	private static byte[] render(){
+		EasyPrinter vPrinter = new EasyPrinter(BenchmarkContent.createContent(40), BenchmarkContent.HEADER, BenchmarkContent.FOOTER);
+		return vPrinter.renderToBytes();
+	}
+
+}
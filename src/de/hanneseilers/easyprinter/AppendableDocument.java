@@ -0,0 +1,580 @@
+package de.hanneseilers.easyprinter;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.pdfwriter.COSWriter;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+
+/**
+ * Rendered PDF document, that content lines can be appended to.
+ * Appended lines are written as PDF incremental update, that has to be appended to the previously written document:
+ * the partially filled last page gets a new content stream with its previous and appended lines,
+ * further lines are laid out on new pages and the page tree root is written again with references to all pages.
+ * All other pages, fonts and resources are neither laid out nor written again,
+ * so appending costs as much as the appended lines, apart from a few bytes per page of the page tree root.
+ * Registered fonts are embedded completely, as appended lines may use any of their characters.
+ * Use {@link PageLayout#createAppendableDocument(LineSource, OutputStream)} to create a document.
+ * Instances are not thread-safe.
+ */
+public final class AppendableDocument {
+	
+	private static final byte[] EOL = { '\n' };
+	
+	private final PageLayout mPageLayout;
+	private final int mPagesObject;
+	private final byte[] mPagesEntries;
+	private final byte[] mPageEntries;
+	private final byte[] mTrailerEntries;
+	
+	private int mNextObject;
+	private long mLength;
+	private long mStartXref;
+	private int[] mPages;
+	private int mPageCount;
+	private int mLastContentObject;
+	private String[] mLastPageLines;
+	private int mLastPageLineCount;
+	
+	/**
+	 * Constructor
+	 * @param aPageLayout		{@link PageLayout} of pages.
+	 * @param aPagesObject		Object number of page tree root.
+	 * @param aPagesEntries		Encoded entries of page tree root except pages and page count.
+	 * @param aPageEntries		Encoded entries of every page except content stream.
+	 * @param aTrailerEntries	Encoded entries of trailer except size and previous cross-reference section.
+	 * @param aNextObject		Object number of next new object.
+	 * @param aLength			Length of written document in bytes.
+	 * @param aStartXref		Offset of last cross-reference section of written document.
+	 * @param aPages			Object numbers of all pages.
+	 * @param aLastContentObject	Object number of content stream of last page, unused if there are no pages.
+	 * @param aLastPageLines	Lines of last page, sized lines per page.
+	 * @param aLastPageLineCount	Number of lines of last page, {@code 0} if there are no pages.
+	 */
+	private AppendableDocument(PageLayout aPageLayout, int aPagesObject, byte[] aPagesEntries, byte[] aPageEntries,
+			byte[] aTrailerEntries, int aNextObject, long aLength, long aStartXref, int[] aPages,
+			int aLastContentObject, String[] aLastPageLines, int aLastPageLineCount) {
+		mPageLayout = aPageLayout;
+		mPagesObject = aPagesObject;
+		mPagesEntries = aPagesEntries;
+		mPageEntries = aPageEntries;
+		mTrailerEntries = aTrailerEntries;
+		mNextObject = aNextObject;
+		mLength = aLength;
+		mStartXref = aStartXref;
+		mPages = aPages;
+		mPageCount = aPages.length;
+		mLastContentObject = aLastContentObject;
+		mLastPageLines = aLastPageLines;
+		mLastPageLineCount = aLastPageLineCount;
+	}
+	
+	/**
+	 * Lays out lines on pages of a new document and writes it completely.
+	 * Resources of an empty document are attached to the page tree root, so they are written for pages appended later.
+	 * @param aPageLayout		{@link PageLayout} to lay out lines with.
+	 * @param aLines			{@link LineSource} of lines to put on pages, may be {@code null}. Not closed.
+	 * @param aPool				{@link ForkJoinPool} to encode pages on, {@code null} to encode pages sequentially.
+	 * @param aOutputStream		{@link OutputStream} to write PDF to. Not closed.
+	 * @return	{@link AppendableDocument} of written document.
+	 * @throws IOException	if reading lines or writing document failed, or content font will be subset.
+	 */
+	static AppendableDocument create(PageLayout aPageLayout, LineSource aLines, ForkJoinPool aPool,
+			OutputStream aOutputStream) throws IOException{
+		
+		LastPageLineSource vLines = new LastPageLineSource(aLines, getLinesPerPage(aPageLayout));
+		PDDocument vDocument = aPageLayout.createEmptyDocument();
+		try{
+			
+			// a subset written with the document would lack characters of appended lines
+			PDFont[] vFonts = aPageLayout.resolveFonts(vDocument, true);
+			if( vFonts[0].willBeSubset() ){
+				throw new IOException("Content font " + vFonts[0].getName() + " will be subset, it has to be embedded completely to append lines");
+			}
+			
+			PDResources vResources = aPageLayout.createResources(vDocument, vFonts, PageLayout.createTemplateResources(vFonts));
+			COSDictionary vPageTree = vDocument.getPages().getCOSObject();
+			aPageLayout.appendPages(vDocument, vResources, aLines != null ? vLines : null, aPool, null, null);
+			if( vDocument.getNumberOfPages() == 0 ){
+				vPageTree.setItem(COSName.RESOURCES, vResources);
+			}
+			
+			// write document and remember object numbers of page tree and pages
+			CountingOutputStream vOutputStream = new CountingOutputStream(aOutputStream);
+			BufferedOutputStream vBufferedOutputStream = new BufferedOutputStream(vOutputStream);
+			DocumentWriter vWriter = new DocumentWriter(vBufferedOutputStream);
+			vWriter.write(vDocument);
+			vBufferedOutputStream.flush();
+			Map<COSBase, COSObjectKey> vKeys = vWriter.getObjectKeys();
+			
+			int vNextObject = 0;
+			for( COSObjectKey vKey : vKeys.values() ){
+				vNextObject = (int) Math.max(vNextObject, vKey.getNumber() + 1);
+			}
+			int[] vPages = new int[vDocument.getNumberOfPages()];
+			int vPageCount = 0;
+			int vLastContentObject = 0;
+			for( PDPage vPage : vDocument.getPages() ){
+				vPages[vPageCount++] = getObjectNumber(vKeys, vPage.getCOSObject());
+				if( vPageCount == vPages.length ){
+					vLastContentObject = getObjectNumber(vKeys, vPage.getCOSObject().getDictionaryObject(COSName.CONTENTS));
+				}
+			}
+			int vPagesObject = getObjectNumber(vKeys, vPageTree);
+			
+			// entries written again with every update
+			ByteArrayOutputStream vPagesEntries = new ByteArrayOutputStream();
+			writeEntry(vPagesEntries, COSName.TYPE, COSName.PAGES, vKeys);
+			if( vPageTree.containsKey(COSName.RESOURCES) ){
+				writeEntry(vPagesEntries, COSName.RESOURCES, vResources.getCOSObject(), vKeys);
+			}
+			
+			ByteArrayOutputStream vPageEntries = new ByteArrayOutputStream();
+			PDRectangle vPageFormat = aPageLayout.getPageFormat();
+			writeEntry(vPageEntries, COSName.TYPE, COSName.PAGE, vKeys);
+			writeEntry(vPageEntries, COSName.MEDIA_BOX, vPageFormat.getCOSArray(), vKeys);
+			writeEntry(vPageEntries, COSName.RESOURCES, vResources.getCOSObject(), vKeys);
+			writeEntry(vPageEntries, COSName.PARENT, vPageTree, vKeys);
+			
+			ByteArrayOutputStream vTrailerEntries = new ByteArrayOutputStream();
+			COSDictionary vTrailer = vDocument.getDocument().getTrailer();
+			for( Map.Entry<COSName, COSBase> vEntry : vTrailer.entrySet() ){
+				if( !COSName.SIZE.equals(vEntry.getKey()) && !COSName.PREV.equals(vEntry.getKey()) ){
+					writeEntry(vTrailerEntries, vEntry.getKey(), vEntry.getValue(), vKeys);
+				}
+			}
+			
+			return new AppendableDocument(aPageLayout, vPagesObject, vPagesEntries.toByteArray(), vPageEntries.toByteArray(),
+					vTrailerEntries.toByteArray(), vNextObject, vOutputStream.getCount(), vWriter.getStartxref(), vPages,
+					vLastContentObject, vLines.getLastPageLines(), vLines.getLastPageLineCount());
+			
+		} finally{
+			vDocument.close();
+		}
+	}
+	
+	/**
+	 * Appends content lines to document, wrapped if word wrap is enabled.
+	 * Only the incremental update is written, it has to be appended to the document written before.
+	 * If no lines are appended, nothing is written.
+	 * @param aContent		{@link LineSource} of content lines to append. Not closed.
+	 * @param aOutputStream	{@link OutputStream} to write incremental update to, positioned at end of document. Not closed.
+	 * @return	Number of first page changed, starting at {@code 1}. All pages up to {@link #getPageCount()} changed.
+	 * 			{@code 0} if no lines were appended.
+	 * @throws IOException	if reading content or writing update failed.
+	 * 						If writing failed, the document must not be appended to anymore.
+	 */
+	public int append(LineSource aContent, OutputStream aOutputStream) throws IOException{
+		LineSource vLines = mPageLayout.wrapLines(aContent);
+		final int vLinesPerPage = getLinesPerPage(mPageLayout);
+		
+		// first appended line
+		CharSequence vLine = vLines.nextLine();
+		if( vLine == null ){
+			return 0;
+		}
+		
+		ByteArrayOutputStream vUpdate = new ByteArrayOutputStream();
+		int[] vObjects = new int[16];
+		long[] vOffsets = new long[16];
+		int vObjectCount = 0;
+		
+		int vNextObject = mNextObject;
+		int[] vPages = mPages;
+		int vPageCount = mPageCount;
+		int vContentObject = mLastContentObject;
+		String[] vPageLines = mLastPageLines.clone();
+		int vPageLineCount = mLastPageLineCount;
+		int vFirstChangedPage = vPageLineCount > 0 && vPageLineCount < vLinesPerPage ? vPageCount : vPageCount + 1;
+		
+		ContentEncoder vEncoder = new ContentEncoder();
+		while( vLine != null ){
+			
+			// start new page, if last page is full or there are no pages
+			boolean vNewPage = vPageCount == 0 || vPageLineCount == vLinesPerPage;
+			if( vNewPage ){
+				vPageLineCount = 0;
+				vContentObject = vNextObject++;
+			}
+			
+			// fill page and encode it with all of its lines
+			for( ; vPageLineCount < vLinesPerPage && vLine != null; vPageLineCount++ ){
+				vPageLines[vPageLineCount] = vLine.toString();
+				vLine = vLines.nextLine();
+			}
+			
+			PageRenderEvent vEvent = new PageRenderEvent();
+			vEvent.begin();
+			vEncoder.reset();
+			mPageLayout.encodePage(vEncoder, vPageLines, vPageLineCount);
+			byte[] vContent = PageLayout.compress(vEncoder.toByteArray());
+			if( vEvent.shouldCommit() ){
+				vEvent.pageIndex = vNewPage ? vPageCount : vPageCount - 1;
+				vEvent.lines = vPageLineCount;
+				vEvent.contentSize = vContent.length;
+				vEvent.commit();
+			}
+			
+			// write content stream and new page
+			if( vObjectCount + 2 > vObjects.length ){
+				vObjects = Arrays.copyOf(vObjects, vObjects.length << 1);
+				vOffsets = Arrays.copyOf(vOffsets, vOffsets.length << 1);
+			}
+			vObjects[vObjectCount] = vContentObject;
+			vOffsets[vObjectCount++] = mLength + vUpdate.size();
+			writeContentStream(vUpdate, vContentObject, vContent);
+			
+			if( vNewPage ){
+				int vPageObject = vNextObject++;
+				vObjects[vObjectCount] = vPageObject;
+				vOffsets[vObjectCount++] = mLength + vUpdate.size();
+				writeObjectStart(vUpdate, vPageObject);
+				vUpdate.write(COSWriter.DICT_OPEN);
+				vUpdate.write(EOL);
+				vUpdate.write(mPageEntries);
+				writeEntryStart(vUpdate, COSName.CONTENTS);
+				writeReference(vUpdate, vContentObject);
+				vUpdate.write(EOL);
+				vUpdate.write(COSWriter.DICT_CLOSE);
+				writeObjectEnd(vUpdate);
+				
+				if( vPageCount == vPages.length ){
+					vPages = Arrays.copyOf(vPages, Math.max(16, vPageCount << 1));
+				}
+				vPages[vPageCount++] = vPageObject;
+			}
+		}
+		
+		// write page tree with all pages
+		long vPagesOffset = mLength + vUpdate.size();
+		writeObjectStart(vUpdate, mPagesObject);
+		vUpdate.write(COSWriter.DICT_OPEN);
+		vUpdate.write(EOL);
+		vUpdate.write(mPagesEntries);
+		writeEntryStart(vUpdate, COSName.KIDS);
+		vUpdate.write(COSWriter.ARRAY_OPEN);
+		for( int i=0; i < vPageCount; i++ ){
+			if( i > 0 ){
+				vUpdate.write(COSWriter.SPACE);
+			}
+			writeReference(vUpdate, vPages[i]);
+		}
+		vUpdate.write(COSWriter.ARRAY_CLOSE);
+		vUpdate.write(EOL);
+		writeEntryStart(vUpdate, COSName.COUNT);
+		writeAscii(vUpdate, Integer.toString(vPageCount));
+		vUpdate.write(EOL);
+		vUpdate.write(COSWriter.DICT_CLOSE);
+		writeObjectEnd(vUpdate);
+		
+		// write cross-reference section of changed objects, in subsections of consecutive objects
+		long vStartXref = mLength + vUpdate.size();
+		vUpdate.write(COSWriter.XREF);
+		vUpdate.write(EOL);
+		writeAscii(vUpdate, mPagesObject + " 1\n");
+		writeXrefEntry(vUpdate, vPagesOffset);
+		for( int i=0; i < vObjectCount; ){
+			int vEnd = i + 1;
+			while( vEnd < vObjectCount && vObjects[vEnd] == vObjects[vEnd-1] + 1 ){
+				vEnd++;
+			}
+			writeAscii(vUpdate, vObjects[i] + " " + (vEnd - i) + "\n");
+			for( ; i < vEnd; i++ ){
+				writeXrefEntry(vUpdate, vOffsets[i]);
+			}
+		}
+		
+		// write trailer referring to previous cross-reference section
+		vUpdate.write(COSWriter.TRAILER);
+		vUpdate.write(EOL);
+		vUpdate.write(COSWriter.DICT_OPEN);
+		vUpdate.write(EOL);
+		writeEntryStart(vUpdate, COSName.SIZE);
+		writeAscii(vUpdate, vNextObject + "\n");
+		writeEntryStart(vUpdate, COSName.PREV);
+		writeAscii(vUpdate, mStartXref + "\n");
+		vUpdate.write(mTrailerEntries);
+		vUpdate.write(COSWriter.DICT_CLOSE);
+		vUpdate.write(EOL);
+		vUpdate.write(COSWriter.STARTXREF);
+		writeAscii(vUpdate, "\n" + vStartXref + "\n");
+		vUpdate.write(COSWriter.EOF);
+		vUpdate.write(EOL);
+		
+		vUpdate.writeTo(aOutputStream);
+		aOutputStream.flush();
+		
+		mNextObject = vNextObject;
+		mLength += vUpdate.size();
+		mStartXref = vStartXref;
+		mPages = vPages;
+		mPageCount = vPageCount;
+		mLastContentObject = vContentObject;
+		mLastPageLines = vPageLines;
+		mLastPageLineCount = vPageLineCount;
+		return vFirstChangedPage;
+	}
+	
+	/**
+	 * Appends content text to document, see {@link #append(LineSource, OutputStream)}.
+	 * @param aContent		{@link String} of content text to append.
+	 * @param aOutputStream	{@link OutputStream} to write incremental update to, positioned at end of document. Not closed.
+	 * @return	Number of first page changed, starting at {@code 1}. {@code 0} if no lines were appended.
+	 * @throws IOException	if writing update failed.
+	 */
+	public int append(String aContent, OutputStream aOutputStream) throws IOException{
+		return append(new LineIndex(aContent).openLines(), aOutputStream);
+	}
+	
+	/**
+	 * @return	Number of pages of document.
+	 */
+	public int getPageCount(){
+		return mPageCount;
+	}
+	
+	/**
+	 * @return	Length of document in bytes, including all incremental updates written.
+	 */
+	public long getLength(){
+		return mLength;
+	}
+	
+	/**
+	 * @return	{@link PageLayout} of pages.
+	 */
+	public PageLayout getPageLayout(){
+		return mPageLayout;
+	}
+	
+	private static int getLinesPerPage(PageLayout aPageLayout){
+		return Math.max(1, aPageLayout.getMaxLines());
+	}
+	
+	/**
+	 * @param aKeys		Object keys of written document.
+	 * @param aObject	{@link COSBase} of indirect object.
+	 * @return	Object number of object.
+	 * @throws IOException	if object was not written as indirect object.
+	 */
+	private static int getObjectNumber(Map<COSBase, COSObjectKey> aKeys, COSBase aObject) throws IOException{
+		if( aObject instanceof COSObject ){
+			aObject = ((COSObject) aObject).getObject();
+		}
+		COSObjectKey vKey = aKeys.get(aObject);
+		if( vKey == null ){
+			throw new IOException("Object " + aObject.getClass().getSimpleName() + " was not written as indirect object");
+		}
+		
+		return (int) vKey.getNumber();
+	}
+	
+	private static void writeObjectStart(OutputStream aOutputStream, int aObject) throws IOException{
+		writeAscii(aOutputStream, aObject + " 0 ");
+		aOutputStream.write(COSWriter.OBJ);
+		aOutputStream.write(EOL);
+	}
+	
+	private static void writeObjectEnd(OutputStream aOutputStream) throws IOException{
+		aOutputStream.write(EOL);
+		aOutputStream.write(COSWriter.ENDOBJ);
+		aOutputStream.write(EOL);
+	}
+	
+	private static void writeContentStream(OutputStream aOutputStream, int aObject, byte[] aCompressedContent) throws IOException{
+		writeObjectStart(aOutputStream, aObject);
+		aOutputStream.write(COSWriter.DICT_OPEN);
+		aOutputStream.write(EOL);
+		writeEntryStart(aOutputStream, COSName.LENGTH);
+		writeAscii(aOutputStream, aCompressedContent.length + "\n");
+		writeEntryStart(aOutputStream, COSName.FILTER);
+		COSName.FLATE_DECODE.writePDF(aOutputStream);
+		aOutputStream.write(EOL);
+		aOutputStream.write(COSWriter.DICT_CLOSE);
+		aOutputStream.write(EOL);
+		aOutputStream.write(COSWriter.STREAM);
+		aOutputStream.write(EOL);
+		aOutputStream.write(aCompressedContent);
+		aOutputStream.write(EOL);
+		aOutputStream.write(COSWriter.ENDSTREAM);
+		writeObjectEnd(aOutputStream);
+	}
+	
+	private static void writeEntryStart(OutputStream aOutputStream, COSName aKey) throws IOException{
+		aKey.writePDF(aOutputStream);
+		aOutputStream.write(COSWriter.SPACE);
+	}
+	
+	/**
+	 * Writes a dictionary entry, indirect objects of written document are referenced,
+	 * direct dictionaries are written inline.
+	 * @param aOutputStream	{@link OutputStream} to write to.
+	 * @param aKey			{@link COSName} of entry.
+	 * @param aValue		{@link COSBase} of value.
+	 * @param aKeys			Object keys of written document.
+	 * @throws IOException
+	 */
+	private static void writeEntry(OutputStream aOutputStream, COSName aKey, COSBase aValue,
+			Map<COSBase, COSObjectKey> aKeys) throws IOException{
+		writeEntryStart(aOutputStream, aKey);
+		writeValue(aOutputStream, aValue, aKeys);
+		aOutputStream.write(EOL);
+	}
+	
+	private static void writeValue(OutputStream aOutputStream, COSBase aValue, Map<COSBase, COSObjectKey> aKeys) throws IOException{
+		if( aValue instanceof COSObject || (aValue instanceof COSDictionary && aKeys.containsKey(aValue)) ){
+			writeReference(aOutputStream, getObjectNumber(aKeys, aValue));
+		} else if( aValue instanceof COSDictionary ){
+			aOutputStream.write(COSWriter.DICT_OPEN);
+			aOutputStream.write(EOL);
+			for( Map.Entry<COSName, COSBase> vEntry : ((COSDictionary) aValue).entrySet() ){
+				writeEntry(aOutputStream, vEntry.getKey(), vEntry.getValue(), aKeys);
+			}
+			aOutputStream.write(COSWriter.DICT_CLOSE);
+		} else if( aValue instanceof COSArray ){
+			aOutputStream.write(COSWriter.ARRAY_OPEN);
+			COSArray vArray = (COSArray) aValue;
+			for( int i=0; i < vArray.size(); i++ ){
+				if( i > 0 ){
+					aOutputStream.write(COSWriter.SPACE);
+				}
+				writeValue(aOutputStream, vArray.get(i), aKeys);
+			}
+			aOutputStream.write(COSWriter.ARRAY_CLOSE);
+		} else if( aValue instanceof COSString ){
+			COSWriter.writeString((COSString) aValue, aOutputStream);
+		} else if( aValue instanceof COSName ){
+			((COSName) aValue).writePDF(aOutputStream);
+		} else if( aValue instanceof COSFloat ){
+			((COSFloat) aValue).writePDF(aOutputStream);
+		} else if( aValue instanceof COSInteger ){
+			((COSInteger) aValue).writePDF(aOutputStream);
+		} else {
+			throw new IOException("Value " + aValue.getClass().getSimpleName() + " not supported in incremental update");
+		}
+	}
+	
+	private static void writeReference(OutputStream aOutputStream, int aObject) throws IOException{
+		writeAscii(aOutputStream, aObject + " 0 R");
+	}
+	
+	private static void writeXrefEntry(OutputStream aOutputStream, long aOffset) throws IOException{
+		String vOffset = Long.toString(aOffset);
+		writeAscii(aOutputStream, "0000000000".substring(Math.min(10, vOffset.length())) + vOffset + " 00000 n\r\n");
+	}
+	
+	private static void writeAscii(OutputStream aOutputStream, String aText) throws IOException{
+		aOutputStream.write( aText.getBytes(StandardCharsets.US_ASCII) );
+	}
+	
+	/**
+	 * {@link COSWriter} providing the offset of the cross-reference section written.
+	 */
+	private static final class DocumentWriter extends COSWriter {
+		
+		private DocumentWriter(OutputStream aOutputStream) {
+			super(aOutputStream);
+		}
+		
+		@Override
+		protected long getStartxref() {
+			return super.getStartxref();
+		}
+		
+	}
+	
+	/**
+	 * {@link OutputStream} counting bytes written to another stream.
+	 */
+	private static final class CountingOutputStream extends OutputStream {
+		
+		private final OutputStream mOutputStream;
+		private long mCount = 0;
+		
+		private CountingOutputStream(OutputStream aOutputStream) {
+			mOutputStream = aOutputStream;
+		}
+		
+		@Override
+		public void write(int aByte) throws IOException {
+			mOutputStream.write(aByte);
+			mCount++;
+		}
+		
+		@Override
+		public void write(byte[] aBuffer, int aOffset, int aLength) throws IOException {
+			mOutputStream.write(aBuffer, aOffset, aLength);
+			mCount += aLength;
+		}
+		
+		@Override
+		public void flush() throws IOException {
+			mOutputStream.flush();
+		}
+		
+		private long getCount(){
+			return mCount;
+		}
+		
+	}
+	
+	/**
+	 * {@link LineSource} keeping a copy of the lines read since the last full page.
+	 */
+	private static final class LastPageLineSource implements LineSource {
+		
+		private final LineSource mSource;
+		private final String[] mLines;
+		private int mLineCount = 0;
+		
+		private LastPageLineSource(LineSource aSource, int aLinesPerPage) {
+			mSource = aSource;
+			mLines = new String[aLinesPerPage];
+		}
+		
+		@Override
+		public CharSequence nextLine() throws IOException {
+			CharSequence vLine = mSource.nextLine();
+			if( vLine != null ){
+				if( mLineCount == mLines.length ){
+					mLineCount = 0;
+				}
+				mLines[mLineCount++] = vLine.toString();
+			}
+			return vLine;
+		}
+		
+		@Override
+		public void close() throws IOException {
+			mSource.close();
+		}
+		
+		private String[] getLastPageLines(){
+			return mLines;
+		}
+		
+		private int getLastPageLineCount(){
+			return mLineCount;
+		}
+		
+	}
+
+}
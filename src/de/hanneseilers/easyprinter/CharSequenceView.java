@@ -0,0 +1,54 @@
+package de.hanneseilers.easyprinter;
+
+/**
+ * Reusable {@link CharSequence} view on a range of another {@link CharSequence}.
+ * Used by line sources to return lines without copying characters into new {@link String}s.
+ * Only valid as long as the viewed text is unchanged and the view is not moved to another range.
+ */
+final class CharSequenceView implements CharSequence {
+
+	private CharSequence mText = "";
+	private int mStart = 0;
+	private int mLength = 0;
+	
+	/**
+	 * Moves view to a range of a text.
+	 * @param aText		{@link CharSequence} to view.
+	 * @param aStart	Start index of range.
+	 * @param aEnd		End index of range (exclusive).
+	 * @return	This view.
+	 */
+	CharSequenceView set(CharSequence aText, int aStart, int aEnd){
+		mText = aText;
+		mStart = aStart;
+		mLength = aEnd - aStart;
+		return this;
+	}
+	
+	@Override
+	public int length() {
+		return mLength;
+	}
+
+	@Override
+	public char charAt(int aIndex) {
+		if( aIndex < 0 || aIndex >= mLength ){
+			throw new IndexOutOfBoundsException("Index " + aIndex + " out of view length " + mLength);
+		}
+		return mText.charAt(mStart + aIndex);
+	}
+
+	@Override
+	public CharSequence subSequence(int aStart, int aEnd) {
+		if( aStart < 0 || aEnd > mLength || aStart > aEnd ){
+			throw new IndexOutOfBoundsException("Range " + aStart + "-" + aEnd + " out of view length " + mLength);
+		}
+		return mText.subSequence(mStart + aStart, mStart + aEnd).toString();
+	}
+	
+	@Override
+	public String toString() {
+		return mText.subSequence(mStart, mStart + mLength).toString();
+	}
+	
+}
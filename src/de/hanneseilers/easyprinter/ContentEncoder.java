@@ -0,0 +1,187 @@
+package de.hanneseilers.easyprinter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.apache.pdfbox.cos.COSName;
+
+/**
+ * Encodes text operators of a PDF content stream into a byte buffer.
+ * Used for content that is encoded once and written into many content streams.
+ * Numbers are written with up to five fraction digits, like {@link org.apache.pdfbox.pdmodel.PDPageContentStream} does.
+ */
+final class ContentEncoder {
+
+	private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes();
+	
+	private final Buffer mBuffer = new Buffer();
+	
+	/**
+	 * Begins text object ({@code BT}).
+	 * @return	This encoder.
+	 */
+	ContentEncoder beginText(){
+		writeOperator("BT");
+		return this;
+	}
+	
+	/**
+	 * Ends text object ({@code ET}).
+	 * @return	This encoder.
+	 */
+	ContentEncoder endText(){
+		writeOperator("ET");
+		return this;
+	}
+	
+	/**
+	 * Sets font ({@code Tf}).
+	 * @param aFontName	{@link COSName} of font in resources.
+	 * @param aFontSize	Font size in pt.
+	 * @return	This encoder.
+	 */
+	ContentEncoder setFont(COSName aFontName, float aFontSize){
+		writeName(aFontName);
+		writeNumber(aFontSize);
+		writeOperator("Tf");
+		return this;
+	}
+	
+	/**
+	 * Moves to start of next line ({@code Td}).
+	 * @param aX	Horizontal offset in pt.
+	 * @param aY	Vertical offset in pt.
+	 * @return	This encoder.
+	 */
+	ContentEncoder newLineAtOffset(float aX, float aY){
+		writeNumber(aX);
+		writeNumber(aY);
+		writeOperator("Td");
+		return this;
+	}
+	
+	/**
+	 * Shows text ({@code Tj}).
+	 * @param aText		{@link CharSequence} of text to show.
+	 * @param aCodes	{@link GlyphEncodingCache} of current font.
+	 * @return	This encoder.
+	 * @throws IOException	if font could not encode text.
+	 * @throws IllegalArgumentException	if a character is not available in font encoding.
+	 */
+	ContentEncoder showText(CharSequence aText, GlyphEncodingCache aCodes) throws IOException{
+		mBuffer.write('<');
+		for( int i=0; i < aText.length(); ){
+			int vCodePoint = Character.codePointAt(aText, i);
+			for( byte vByte : aCodes.getCode(vCodePoint) ){
+				mBuffer.write( HEX_DIGITS[(vByte >> 4) & 0x0F] );
+				mBuffer.write( HEX_DIGITS[vByte & 0x0F] );
+			}
+			i += Character.charCount(vCodePoint);
+		}
+		mBuffer.write('>');
+		mBuffer.write(' ');
+		writeOperator("Tj");
+		return this;
+	}
+	
+	/**
+	 * Draws a XObject ({@code Do}).
+	 * @param aXObjectName	{@link COSName} of XObject in resources.
+	 * @return	This encoder.
+	 */
+	ContentEncoder drawXObject(COSName aXObjectName){
+		writeName(aXObjectName);
+		writeOperator("Do");
+		return this;
+	}
+	
+	/**
+	 * Appends already encoded operators.
+	 * @param aOperators	{@code byte} array of encoded operators.
+	 * @return	This encoder.
+	 */
+	ContentEncoder write(byte[] aOperators){
+		mBuffer.write(aOperators, 0, aOperators.length);
+		return this;
+	}
+	
+	/**
+	 * @return	{@code byte} array of all encoded operators.
+	 */
+	byte[] toByteArray(){
+		return mBuffer.toByteArray();
+	}
+	
+	/**
+	 * @return	Number of encoded bytes.
+	 */
+	int size(){
+		return mBuffer.size();
+	}
+	
+	/**
+	 * Discards all encoded operators, so the encoder can be reused.
+	 */
+	void reset(){
+		mBuffer.reset();
+	}
+	
+	private void writeName(COSName aName){
+		mBuffer.write('/');
+		writeAscii(aName.getName());
+		mBuffer.write(' ');
+	}
+	
+	private void writeOperator(String aOperator){
+		writeAscii(aOperator);
+		mBuffer.write('\n');
+	}
+	
+	private void writeAscii(String aText){
+		for( int i=0; i < aText.length(); i++ ){
+			mBuffer.write( aText.charAt(i) );
+		}
+	}
+	
+	/**
+	 * Writes a number operand with up to five fraction digits and without exponent.
+	 * @param aValue	Number to write.
+	 */
+	private void writeNumber(float aValue){
+		long vScaled = Math.round( (double) aValue * 100000.0 );
+		if( vScaled < 0 ){
+			mBuffer.write('-');
+			vScaled = -vScaled;
+		}
+		
+		writeAscii( Long.toString(vScaled / 100000) );
+		
+		// fraction digits without trailing zeros
+		long vFraction = vScaled % 100000;
+		if( vFraction != 0 ){
+			mBuffer.write('.');
+			for( long vDivisor = 10000; vFraction != 0; vDivisor /= 10 ){
+				mBuffer.write( (int) ('0' + vFraction / vDivisor) );
+				vFraction %= vDivisor;
+			}
+		}
+		
+		mBuffer.write(' ');
+	}
+	
+	/**
+	 * {@link ByteArrayOutputStream} without synchronization overhead of single byte writes.
+	 */
+	private static final class Buffer extends ByteArrayOutputStream {
+		
+		@Override
+		public void write(int aByte) {
+			if( count == buf.length ){
+				buf = Arrays.copyOf(buf, buf.length << 1);
+			}
+			buf[count++] = (byte) aByte;
+		}
+		
+	}
+	
+}
@@ -1,24 +1,56 @@
 package de.hanneseilers.easyprinter;
 
+import java.awt.print.Pageable;
+import java.awt.print.PrinterException;
 import java.awt.print.PrinterJob;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.LinkedList;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
-import org.apache.pdfbox.printing.PDFPageable;
 
-public class EasyPrinter {
+import de.hanneseilers.easyprinter.PrintMetrics.Phase;
 
+public class EasyPrinter {
+	
+	private static final int PROGRESS_BUFFER_SIZE = 64 * 1024;
+	private static final int PRINT_PIPELINE_PAGES = 8;
+	private static final long FOLLOW_POLL_MILLIS = 200;
+	private static final Executor NEW_THREAD_EXECUTOR = aTask -> new Thread(aTask, "EasyPrinter print task").start();
+	
 	private String mContent = null;
+	private LineIndex mContentIndex = null;
+	private PageIndex mPageIndex = null;
+	private byte[] mContentDigest = null;
+	private Path mContentPath = null;
+	private Charset mContentCharset = StandardCharsets.UTF_8;
+	private LineSource mContentSource = null;
 	private String mHeader = null;
 	private String mFooter = null;
 	
 	private PDRectangle mPageFormat = PDRectangle.A4;
+	private MemoryUsageSetting mMemoryUsageSetting = MemoryUsageSetting.setupMainMemoryOnly();
+	private PageLayout mPageLayout = null;
+	private ForkJoinPool mRenderPool = null;
+	private PrintMetrics mMetrics = PrintMetrics.NONE;
+	private RenderCache mRenderCache = null;
 	
 	private int mFontSize = 12;
 	private PDFont mFont = PDType1Font.HELVETICA;	
@@ -26,11 +58,16 @@ public class EasyPrinter {
 	private PDFont mHeaderFont = PDType1Font.HELVETICA_BOLD;
 	private int mFooterFontSize = 10;
 	private PDFont mFooterFont = PDType1Font.HELVETICA;
+	private RegisteredFont mRegisteredFont = null;
+	private RegisteredFont mRegisteredHeaderFont = null;
+	private RegisteredFont mRegisteredFooterFont = null;
 	
 	private float mBorderTop = (20 * 72.0f) / 25.4f;
 	private float mBoderBottom = (20 * 72.0f) / 25.4f;
 	private float mBorderLeft = (20 * 72.0f) / 25.4f;
 	
+	private boolean mWordWrap = false;
+	
 	/**
 	 * Constructor using a header and a footer text
 	 * @param content
@@ -63,39 +100,154 @@ public class EasyPrinter {
 		this(content, null, null);
 	}
 	
+	/**
+	 * Constructor using a streamed content source, a header and a footer text.
+	 * Lines are pulled from the source while pages are filled.
+	 * @param content	{@link LineSource} of content lines. Consumed and closed by {@link #print()}.
+	 * @param header
+	 * @param footer
+	 */
+	public EasyPrinter(LineSource content, String header, String footer){
+		this((String) null, header, footer);
+		mContentSource = content;
+	}
+	
+	/**
+	 * Constructor using a streamed content source only (no header or footer).
+	 * @param content	{@link LineSource} of content lines. Consumed and closed by {@link #print()}.
+	 */
+	public EasyPrinter(LineSource content){
+		this(content, null, null);
+	}
+	
 	
 	
 	/**
-	 * @return	{@link LinkedList} of {@link String} array of lines of page header.
+	 * Opens content as {@link LineSource}.
+	 * {@link String} and {@link Path} content is reopened on every call,
+	 * a source set by {@link #setContentSource(LineSource)} can only be read once.
+	 * @param aMetrics	{@link JobMetrics} to record line splitting in, {@code null} if disabled.
+	 * @return	{@link LineSource} of content lines, {@code null} if no content is set.
+	 * @throws IOException	if content file could not be opened.
 	 */
-	private LinkedList<String> getHeaderStrings(){
-		if( mHeader != null ){
-			return new LinkedList<String>( Arrays.asList(mHeader.split("\n")) );
+	private LineSource openContentSource(JobMetrics aMetrics) throws IOException{
+		if( mContentSource != null ){
+			return mContentSource;
 		}
 		
-		return new LinkedList<String>();
-	}	
+		if( mContentPath != null ){
+			return MappedFileLineSource.open(mContentPath, mContentCharset);
+		}
+		
+		if( mContent != null ){
+			return getContentIndex(aMetrics).openLines();
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Returns line index of content text, built once per content change.
+	 * @param aMetrics	{@link JobMetrics} to record line splitting in, {@code null} if disabled.
+	 * @return	{@link LineIndex} of content text, {@code null} if content is not set as {@link String}.
+	 */
+	private LineIndex getContentIndex(JobMetrics aMetrics){
+		LineIndex vContentIndex = mContentIndex;
+		if( vContentIndex == null && mContent != null ){
+			long vStart = aMetrics != null ? aMetrics.start() : 0;
+			vContentIndex = new LineIndex(mContent);
+			mContentIndex = vContentIndex;
+			if( aMetrics != null ){
+				aMetrics.phase(Phase.LINE_SPLITTING, vStart);
+			}
+		}
+		
+		return vContentIndex;
+	}
+	
+	/**
+	 * Counts pages of current content and settings, without laying out any page.
+	 * See {@link #getPageIndex()}.
+	 * @return	Number of pages, {@code -1} if content could not be read.
+	 * @throws IllegalStateException	if content is set as {@link LineSource}, which can only be read once.
+	 */
+	public int countPages(){
+		PageIndex vPageIndex = getPageIndex();
+		return vPageIndex != null ? vPageIndex.getPageCount() : -1;
+	}
+	
+	/**
+	 * Indexes pages of current content and settings with the content lines of every page,
+	 * using only the line index, lines per page and with word wrap the line widths.
+	 * No document, page or content stream is created. The index of {@link String} content is built once
+	 * per content and settings change and used by {@link #printPages(int, int)} to seek to the first page.
+	 * A content file is read on every call.
+	 * @return	{@link PageIndex} of content, {@code null} if content could not be read.
+	 * @throws IllegalStateException	if content is set as {@link LineSource}, which can only be read once.
+	 */
+	public PageIndex getPageIndex(){
+		if( mContentSource != null ){
+			throw new IllegalStateException("Streamed content can not be indexed");
+		}
+		
+		PageLayout vPageLayout = getPageLayout();
+		LineSource vContentSource = null;
+		try{
+			if( isIndexedContent() ){
+				return getContentPageIndex(vPageLayout, null);
+			}
+			
+			vContentSource = openContentSource(null);
+			return vPageLayout.createPageIndex(vContentSource);
+		} catch(IOException e){
+			e.printStackTrace();
+		} finally{
+			closeContentSource(vContentSource);
+		}
+		
+		return null;
+	}
 	
 	/**
-	 * @return {@link LinkedList} of {@link String} array of lines of page footer.
+	 * Returns page index of content text, built once per content and settings change.
+	 * @param aPageLayout	{@link PageLayout} to lay out content with.
+	 * @param aMetrics		{@link JobMetrics} to record line splitting in, {@code null} if disabled.
+	 * @return	{@link PageIndex} of content text, see {@link #isIndexedContent()}.
+	 * @throws IOException	if content could not be indexed.
 	 */
-	private LinkedList<String> getFooterStrings(){
-		if( mFooter != null ){
-			return new LinkedList<String>( Arrays.asList(mFooter.split("\n")) );
+	private PageIndex getContentPageIndex(PageLayout aPageLayout, JobMetrics aMetrics) throws IOException{
+		PageIndex vPageIndex = mPageIndex;
+		if( vPageIndex == null || vPageIndex.getPageLayout() != aPageLayout ){
+			LineIndex vContentIndex = getContentIndex(aMetrics);
+			long vStart = aMetrics != null ? aMetrics.start() : 0;
+			vPageIndex = aPageLayout.createPageIndex( vContentIndex.openLines() );
+			mPageIndex = vPageIndex;
+			if( aMetrics != null ){
+				aMetrics.phase(Phase.LINE_SPLITTING, vStart);
+			}
 		}
 		
-		return new LinkedList<String>();
+		return vPageIndex;
 	}
 	
 	/**
-	 * @return {@link LinkedList} of {@link String} array of lines of page footer.
+	 * @return	SHA-256 digest of content text, computed once per content change.
 	 */
-	private LinkedList<String> getContentStrings(){		
-		if( mContent != null ){
-			return new LinkedList<String>( Arrays.asList(mContent.split("\n")) );
+	private byte[] getContentDigest(){
+		byte[] vContentDigest = mContentDigest;
+		if( vContentDigest == null ){
+			vContentDigest = RenderCache.digest(mContent);
+			mContentDigest = vContentDigest;
 		}
 		
-		return new LinkedList<String>();
+		return vContentDigest;
+	}
+	
+	/**
+	 * @return	{@code true} if content is set as {@link String}, which is indexed in memory.
+	 */
+	private boolean isIndexedContent(){
+		return mContentSource == null && mContentPath == null && mContent != null;
 	}
 	
 	/**
@@ -104,162 +256,665 @@ public class EasyPrinter {
 	 * @return	{@link Integer} of maximum text lines on one page.
 	 */
 	public int getMaxLines(){
-		// page and max lines in page
-		PDPage vPage = new PDPage( mPageFormat );
-		float vLines = vPage.getMediaBox().getHeight();;
+		return getPageLayout().getMaxLines();
+	}
+	
+	/**
+	 * Returns precomputed page layout of current settings.
+	 * The layout is compiled once and reused until a setting changes.
+	 * It can be kept to render different content with the same settings.
+	 * @return	{@link PageLayout} of current settings.
+	 */
+	public PageLayout getPageLayout(){
+		PageLayout vPageLayout = mPageLayout;
+		if( vPageLayout == null ){
+			vPageLayout = new PageLayout(mPageFormat, mMemoryUsageSetting,
+					mFont, mFontSize,
+					mHeaderFont, mHeaderFontSize,
+					mFooterFont, mFooterFontSize,
+					new RegisteredFont[]{ mRegisteredFont, mRegisteredHeaderFont, mRegisteredFooterFont },
+					mBorderTop, mBoderBottom, mBorderLeft, mWordWrap,
+					mHeader, mFooter);
+			mPageLayout = vPageLayout;
+		}
 		
-		// subtract borders
-		vLines -= (mBorderTop + mBoderBottom);
+		return vPageLayout;
+	}
+	
+	/**
+	 * Creates an immutable print job of current content and settings, that can be submitted to a {@link PrintEngine}.
+	 * @return	{@link PrintJob} of current content and page layout.
+	 * @throws IllegalStateException	if content is set as {@link LineSource}, which can only be read once.
+	 */
+	public PrintJob createPrintJob(){
+		if( mContentSource != null ){
+			throw new IllegalStateException("Streamed content can not be used for print jobs");
+		}
 		
-		// get header and footer content
-		LinkedList<String> vHeaderStrings = getHeaderStrings();
-		LinkedList<String> vFooterStrings = getFooterStrings();
+		if( mContentPath != null ){
+			return PrintJob.forFile(getPageLayout(), mContentPath, mContentCharset);
+		}
 		
-		// subtract header and footer lines
-		vLines -= (vHeaderStrings.size() * mHeaderFontSize + mHeaderFontSize);
-		vLines -= (vFooterStrings.size() * mFooterFontSize + mFontSize);
+		return PrintJob.forText(getPageLayout(), mContent);
+	}
+	
+	/**
+	 * Creates an empty batch of documents using current settings, printed as one print job.
+	 * Current header and footer are used for documents added without own header and footer.
+	 * @return	New {@link PrintBatch} of current page layout.
+	 */
+	public PrintBatch createBatch(){
+		PrintBatch vBatch = new PrintBatch( getPageLayout() );
+		vBatch.setMetrics(mMetrics);
+		return vBatch;
+	}
+	
+	/**
+	 * Prints page
+	 * @return	{@code true} if printed successfull, {@code false} otherwise.
+	 */
+	public boolean print(){
+		return printPages(1, Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Prints a range of pages, for example to reprint pages lost in a paper jam.
+	 * Content of preceding pages is skipped without rendering it, following content is not read.
+	 * String content is looked up directly at the first line of the range,
+	 * so reprinting a few pages of a long document costs about as much as printing them alone.
+	 * Pages of String content are drawn for the printer when it requests them, without creating a PDF document.
+	 * @param aFromPage	First page to print, starting at {@code 1}.
+	 * @param aToPage	Last page to print, inclusive. Range may end after last page of content.
+	 * @return	{@code true} if printed successfull, {@code false} otherwise, also if range starts after last page of content.
+	 * @throws IllegalArgumentException	if page range is invalid.
+	 */
+	public boolean printPages(int aFromPage, int aToPage){
+		PrintTask vTask = new PrintTask(null);
+		PageLayout vPageLayout = getPageLayout();
+		JobMetrics vMetrics = JobMetrics.create(mMetrics);
+		Pageable vPageable = takePageable(vPageLayout, aFromPage, aToPage, vTask, vMetrics);
+		LineSource vLines = vPageable == null && !vTask.isDone() ? takePageLines(vPageLayout, aFromPage, aToPage, vTask, vMetrics) : null;
+		if( vTask.isDone() ){
+			return false;
+		}
 		
-		vLines = vLines / mFontSize;
+		return printDocument(vPageLayout, vLines, vPageable, vTask, vMetrics);
+	}
+	
+	/**
+	 * Prints page asynchronously on a new thread, see {@link #printAsync(PrintProgressListener, Executor)}.
+	 * @param aListener	{@link PrintProgressListener} to notify, may be {@code null}.
+	 * @return	{@link PrintTask} of print, {@code true} if printed successfull, {@code false} otherwise.
+	 */
+	public PrintTask printAsync(PrintProgressListener aListener){
+		return printAsync(aListener, NEW_THREAD_EXECUTOR);
+	}
+	
+	/**
+	 * Prints page asynchronously. Layout, print dialog and printing run on the executor,
+	 * current content and settings are taken when called.
+	 * The returned task reports progress and can be cancelled between pages.
+	 * @param aListener	{@link PrintProgressListener} to notify, may be {@code null}.
+	 * @param aExecutor	{@link Executor} to print on.
+	 * @return	{@link PrintTask} of print, {@code true} if printed successfull, {@code false} otherwise.
+	 */
+	public PrintTask printAsync(PrintProgressListener aListener, Executor aExecutor){
+		final PrintTask vTask = new PrintTask(aListener);
+		final PageLayout vPageLayout = getPageLayout();
+		final JobMetrics vMetrics = JobMetrics.create(mMetrics);
+		final Pageable vPageable = takePageable(vPageLayout, 1, Integer.MAX_VALUE, vTask, vMetrics);
+		final LineSource vLines = vPageable == null ? takePageLines(vPageLayout, 1, Integer.MAX_VALUE, vTask, vMetrics) : null;
+		if( !vTask.isDone() ){
+			aExecutor.execute(() -> vTask.complete( printDocument(vPageLayout, vLines, vPageable, vTask, vMetrics) ));
+		}
 		
-		return (int)vLines;
+		return vTask;
 	}
 	
-	private float getCenterXPosition(String aText, PDFont aFont, float aFontSize, float aMaxWidth){
-		float vPositionX = 0;
-		try {
+	/**
+	 * Prints pages, reporting progress to a task. Pages of lines are composed on a separate thread
+	 * and drawn for the printer while following pages are composed, see {@link PipelinedPageable}.
+	 * @param aPageLayout		{@link PageLayout} to lay out lines with.
+	 * @param aLines			{@link LineSource} of lines to put on pages, may be {@code null}. Closed.
+	 * @param aPageable			{@link Pageable} drawing pages itself, {@code null} to print lines.
+	 * @param aTask				{@link PrintTask} to report progress to.
+	 * @param aMetrics			{@link JobMetrics} to record phases in, {@code null} if disabled.
+	 * @return	{@code true} if printed successfull, {@code false} otherwise.
+	 */
+	private boolean printDocument(PageLayout aPageLayout, LineSource aLines, Pageable aPageable,
+			PrintTask aTask, JobMetrics aMetrics){
+		
+		PrintJobEvent vEvent = new PrintJobEvent();
+		vEvent.begin();
+		
+		PipelinedPageable vPipeline = null;
+		boolean vPrinted = false;
+		try{
 			
-			float vTextWidth = aFont.getStringWidth(aText) / 1000f * aFontSize;
-			if( vTextWidth < aMaxWidth ){
-				vPositionX = (aMaxWidth - vTextWidth) / 2.0f;
+			// start composing pages
+			Pageable vPageable = aPageable;
+			if( vPageable == null ){
+				vPipeline = new PipelinedPageable(aPageLayout,
+						aLines != null ? aLines : new IteratorLineSource(Collections.<String>emptyIterator()),
+						PRINT_PIPELINE_PAGES, aTask, aMetrics);
+				aLines = null;
+				vPipeline.start();
+				vPageable = vPipeline;
 			}
 			
-		} catch (IOException e) {
+			// print pages
+			PrinterJob vPrinterJob = PrinterJob.getPrinterJob();
+			vPrinterJob.setPageable( new ProgressPageable(vPageable, aTask) );
+			aTask.setPrinterJob(vPrinterJob);
+			if( vPrinterJob.printDialog() ){
+				aTask.checkCancelled();
+				long vStart = aMetrics != null ? aMetrics.start() : 0;
+				spool(vPrinterJob, vPageable.getNumberOfPages());
+				if( aMetrics != null ){
+					aMetrics.phase(Phase.PRINTING, vStart);
+				}
+				vPrinted = true;
+			}
+			
+		} catch(Exception e){
+			if( !aTask.isCancelRequested() ){
+				e.printStackTrace();
+			}
+		} finally{
+			aTask.setPrinterJob(null);
+			closeContentSource(aLines);
+			if( vPipeline != null ){
+				vPipeline.close();
+			}
+			if( aMetrics != null ){
+				aMetrics.complete(vPrinted);
+			}
+			if( vEvent.shouldCommit() ){
+				vEvent.kind = PrintJobEvent.PRINT;
+				vEvent.pages = aTask.getPagesRendered();
+				vEvent.successful = vPrinted;
+				vEvent.commit();
+			}
+		}
+		
+		return vPrinted;		
+	}
+	
+	/**
+	 * Prints a document, recording a {@link SpoolEvent}.
+	 * @param aPrinterJob	{@link PrinterJob} to print with.
+	 * @param aPages		Number of pages printed.
+	 * @throws PrinterException	if printing failed.
+	 */
+	static void spool(PrinterJob aPrinterJob, int aPages) throws PrinterException{
+		SpoolEvent vEvent = new SpoolEvent();
+		vEvent.begin();
+		aPrinterJob.print();
+		if( vEvent.shouldCommit() ){
+			vEvent.pages = aPages;
+			vEvent.printer = aPrinterJob.getPrintService() != null ? aPrinterJob.getPrintService().getName() : null;
+			vEvent.commit();
+		}
+	}
+	
+	/**
+	 * Follows a file that is still written, like {@code tail -f}, and prints a page each time it is full,
+	 * see {@link #follow(LineSource, long, TimeUnit, PageSink)}. If the file is truncated or replaced,
+	 * for example by log rotation, the new file is followed from its start.
+	 * The file is read with the charset of content files, see {@link #setContent(Path, Charset)}.
+	 * @param aFile			{@link Path} of file to follow.
+	 * @param aFromEnd		{@code true} to print only lines written after calling, {@code false} to print the whole file.
+	 * @param aFlushTimeout	Time after which a partially filled page is printed, {@code 0} to print full pages only.
+	 * @param aUnit			{@link TimeUnit} of flush timeout.
+	 * @return	{@link PrintTask} of following, cancel it to stop following. Completed with {@code false}
+	 * 			if the file could not be opened or printing failed.
+	 */
+	public PrintTask follow(Path aFile, boolean aFromEnd, long aFlushTimeout, TimeUnit aUnit){
+		try{
+			return follow(new FollowingInputStream(aFile, aFromEnd, FOLLOW_POLL_MILLIS), aFlushTimeout, aUnit);
+		} catch(IOException e){
 			e.printStackTrace();
 		}
 		
+		PrintTask vTask = new PrintTask(null);
+		vTask.complete(false);
+		return vTask;
+	}
+	
+	/**
+	 * Follows a stream, that may never end, and prints a page each time it is full,
+	 * see {@link #follow(LineSource, long, TimeUnit, PageSink)}.
+	 * The stream is read with the charset of content files, see {@link #setContent(Path, Charset)}.
+	 * @param aInputStream	{@link InputStream} of content text. Closed when following ends.
+	 * @param aFlushTimeout	Time after which a partially filled page is printed, {@code 0} to print full pages only.
+	 * @param aUnit			{@link TimeUnit} of flush timeout.
+	 * @return	{@link PrintTask} of following, cancel it to stop following. Completed with {@code true}
+	 * 			when the stream ended and all pages are printed, {@code false} if printing failed.
+	 */
+	public PrintTask follow(InputStream aInputStream, long aFlushTimeout, TimeUnit aUnit){
+		return follow(new ReaderLineSource( new InputStreamReader(aInputStream, mContentCharset) ), aFlushTimeout, aUnit, null);
+	}
+	
+	/**
+	 * Follows content lines as they arrive on a new thread, with current settings. Lines are laid out
+	 * on pages, that are passed to a sink each time {@link #getMaxLines()} lines are collected.
+	 * A partially filled page is passed when its first line is older than the flush timeout,
+	 * following lines start a new page. When the source ends, the last page is passed and the task completes.
+	 * Cancelling the task stops following, without passing a partially filled page.
+	 * @param aLines		{@link LineSource} of content lines, read on a thread of its own. Closed when following ends.
+	 * @param aFlushTimeout	Time after which a partially filled page is passed, {@code 0} to pass full pages only.
+	 * @param aUnit			{@link TimeUnit} of flush timeout.
+	 * @param aSink			{@link PageSink} to pass pages to, {@code null} to print every page on the default printer,
+	 * 						as a print job of its own without print dialog.
+	 * @return	{@link PrintTask} of following, cancel it to stop following. Completed with {@code true}
+	 * 			when the source ended and all pages are passed, {@code false} if reading or passing pages failed.
+	 */
+	public PrintTask follow(LineSource aLines, long aFlushTimeout, TimeUnit aUnit, PageSink aSink){
+		final PrintTask vTask = new PrintTask(null);
+		final PageLayout vPageLayout = getPageLayout();
+		final PageSink vSink = aSink != null ? aSink : new PrinterPageSink(vPageLayout, vTask);
+		final LineFollower vFollower = new LineFollower(vPageLayout, vPageLayout.wrapLines(aLines),
+				aUnit.toNanos(aFlushTimeout), PRINT_PIPELINE_PAGES, vSink, vTask);
+		
+		NEW_THREAD_EXECUTOR.execute(() -> {
+			boolean vFollowed = false;
+			try{
+				vFollower.follow();
+				vFollowed = true;
+			} catch(Exception e){
+				if( !vTask.isCancelRequested() ){
+					e.printStackTrace();
+				}
+			} finally{
+				vTask.complete(vFollowed);
+			}
+		});
 		
-		return vPositionX;
+		return vTask;
 	}
 	
 	/**
-	 * Prints page
-	 * @return	{@code true} if printed successfull, {@code false} otherwise.
+	 * Renders pages as PDF to a stream, without any print dialog or printer.
+	 * Works on headless systems.
+	 * @param aOutputStream	{@link OutputStream} to write PDF to. Not closed.
+	 * @return	{@code true} if rendered successfull, {@code false} otherwise.
 	 */
-	public boolean print(){
+	public boolean render(OutputStream aOutputStream){
+		return renderPages(1, Integer.MAX_VALUE, aOutputStream);
+	}
+	
+	/**
+	 * Renders a range of pages as PDF to a stream, without any print dialog or printer.
+	 * Content is skipped to the first page of the range as described at {@link #printPages(int, int)}.
+	 * @param aFromPage		First page to render, starting at {@code 1}.
+	 * @param aToPage		Last page to render, inclusive. Range may end after last page of content.
+	 * @param aOutputStream	{@link OutputStream} to write PDF to. Not closed.
+	 * @return	{@code true} if rendered successfull, {@code false} otherwise, also if range starts after last page of content.
+	 * @throws IllegalArgumentException	if page range is invalid.
+	 */
+	public boolean renderPages(int aFromPage, int aToPage, OutputStream aOutputStream){
+		PrintTask vTask = new PrintTask(null);
+		PageLayout vPageLayout = getPageLayout();
+		JobMetrics vMetrics = JobMetrics.create(mMetrics);
+		
+		// serve document from cache
+		RenderCache vRenderCache = mRenderCache;
+		String vCacheKey = null;
+		if( vRenderCache != null && isIndexedContent() ){
+			PageLayout.checkPageRange(aFromPage, aToPage);
+			vCacheKey = RenderCache.key(vPageLayout, getContentDigest(), aFromPage, aToPage);
+			RenderCache.Entry vEntry = vRenderCache.get(vCacheKey);
+			if( vEntry != null ){
+				return writeDocument(vEntry.getDocument(), vEntry.getPageCount(), aOutputStream, vMetrics);
+			}
+		}
+		
+		LineSource vLines = takePageLines(vPageLayout, aFromPage, aToPage, vTask, vMetrics);
+		if( vTask.isDone() ){
+			return false;
+		}
 		
+		if( vCacheKey == null ){
+			return renderDocument(vPageLayout, vLines, mRenderPool, aOutputStream, vTask, vMetrics);
+		}
+		
+		// render into cache
+		ByteArrayOutputStream vOutputStream = new ByteArrayOutputStream();
+		if( !renderDocument(vPageLayout, vLines, mRenderPool, vOutputStream, vTask, vMetrics) ){
+			return false;
+		}
+		byte[] vDocument = vOutputStream.toByteArray();
+		vRenderCache.put(vCacheKey, vDocument, vTask.getPagesLaidOut());
+		return writeDocument(vDocument, vTask.getPagesLaidOut(), aOutputStream, null);
+	}
+	
+	/**
+	 * Writes an already rendered document to a stream.
+	 * @param aDocument		{@code byte} array of PDF document.
+	 * @param aPageCount	Number of pages of document.
+	 * @param aOutputStream	{@link OutputStream} to write PDF to. Not closed.
+	 * @param aMetrics		{@link JobMetrics} to record pages and bytes in and complete, {@code null} if disabled.
+	 * @return	{@code true} if written successfull, {@code false} otherwise.
+	 */
+	private boolean writeDocument(byte[] aDocument, int aPageCount, OutputStream aOutputStream, JobMetrics aMetrics){
+		boolean vWritten = false;
+		try{
+			aOutputStream.write(aDocument);
+			vWritten = true;
+		} catch(IOException e){
+			e.printStackTrace();
+		} finally{
+			if( aMetrics != null ){
+				if( vWritten ){
+					aMetrics.pages(aPageCount);
+					aMetrics.bytes(aDocument.length);
+				}
+				aMetrics.complete(vWritten);
+			}
+		}
+		
+		return vWritten;
+	}
+	
+	/**
+	 * Renders a range of pages as PDF into memory, see {@link #renderPages(int, int, OutputStream)}.
+	 * @param aFromPage	First page to render, starting at {@code 1}.
+	 * @param aToPage	Last page to render, inclusive.
+	 * @return	{@code byte} array of PDF document, {@code null} if rendering failed or range starts after last page of content.
+	 * @throws IllegalArgumentException	if page range is invalid.
+	 */
+	public byte[] renderPages(int aFromPage, int aToPage){
+		ByteArrayOutputStream vOutputStream = new ByteArrayOutputStream();
+		if( renderPages(aFromPage, aToPage, vOutputStream) ){
+			return vOutputStream.toByteArray();
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Renders pages as PDF file, without any print dialog or printer.
+	 * @param aPath	{@link Path} of PDF file to write. Overwritten if exists.
+	 * @return	{@code true} if rendered successfull, {@code false} otherwise.
+	 */
+	public boolean render(Path aPath){
+		
+		OutputStream vOutputStream = null;
 		try{
 			
-			// get content lines
-			LinkedList<String> vContentStrings = getContentStrings();
-			LinkedList<String> vHeaderStrings = getHeaderStrings();
-			LinkedList<String> vFooterStrings = getFooterStrings();
-			final int vMaxLines = getMaxLines();
-			final float vPageHeight = new PDPage(mPageFormat).getMediaBox().getHeight();
-			final float vMaxTextWidth = new PDPage(mPageFormat).getMediaBox().getWidth() - 2*mBorderLeft;
-			float vLinesLeft = 0;
-			float vPositionY = vPageHeight;
-			
-			// create document, page and stream objects
-			PDDocument vDocument = new PDDocument();
-			PDPage vPage = null;
-			PDPageContentStream vContent = null;
+			vOutputStream = new BufferedOutputStream( Files.newOutputStream(aPath) );
+			boolean vRendered = render(vOutputStream);
+			vOutputStream.close();
+			vOutputStream = null;
+			return vRendered;
 			
-			while( !vContentStrings.isEmpty() ){
-				
-				// check if to add new page
-				if( vLinesLeft == 0 ){
-					
-					// end last page
-					if( vContent != null ){
-						vContent.endText();
-						vContent.close();
-					}
-					
-					// create new page and content stream
-					vPage = new PDPage(mPageFormat);
-					vDocument.addPage(vPage);
-					vContent = new PDPageContentStream(vDocument, vPage);
-					vContent.beginText();
-					
-					// set header position and font
-					vContent.newLineAtOffset(mBorderLeft, vPageHeight-mBorderTop-mHeaderFontSize);
-					vPositionY = vPageHeight-mBorderTop-mHeaderFontSize;
-					vContent.setFont(mHeaderFont, mHeaderFontSize);
-					
-					// add header
-					for( String vString : vHeaderStrings ){
-						float vPositionX = getCenterXPosition(vString, mFont, mFontSize, vMaxTextWidth);
-						vContent.newLineAtOffset(vPositionX, 0);
-						vContent.showText( vString );
-						vContent.newLineAtOffset(-vPositionX, -mHeaderFontSize);
-						vPositionY -= mHeaderFontSize;
-					}
-					
-					vLinesLeft = vMaxLines;
-					
-					// set page text font
-					vContent.setFont(mFont, mFontSize);
-					vContent.newLineAtOffset(0, -mHeaderFontSize);
-					vPositionY -= mHeaderFontSize;
-					
-				}
-					
-				// add content lines
-				vContent.showText( vContentStrings.pop() );
-				vContent.newLineAtOffset(0, -mFontSize);
-				vPositionY -= mFontSize;
-				vLinesLeft--;
-					
-				// check if to add footer
-				if( vLinesLeft == 0 || vContentStrings.isEmpty() ){
-					
-					// get difference between footer start position and current position
-					// move cursor to that position
-					float vPositionFooterStartY = mBoderBottom + mFooterFontSize * vFooterStrings.size();
-					vContent.newLineAtOffset(0, -(vPositionY-vPositionFooterStartY));
-					
-					// set footer font
-					vContent.setFont(mFooterFont, mFooterFontSize);
-					
-					// add footer
-					for( String vString : vFooterStrings ){
-						float vPositionX = getCenterXPosition(vString, mFooterFont, mFooterFontSize, vMaxTextWidth);
-						vContent.newLineAtOffset(vPositionX, 0);
-						vContent.showText(vString);
-						vContent.newLineAtOffset(-vPositionX, -mFooterFontSize);
-					}
-					
+		} catch(IOException e){
+			e.printStackTrace();
+		} finally{
+			if( vOutputStream != null ){
+				try {
+					vOutputStream.close();
+				} catch (IOException e) {
+					e.printStackTrace();
 				}
-				
 			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Renders pages as PDF to a stream, that further content can be appended to.
+	 * Appending lines to the returned document writes an incremental update only,
+	 * that lays out the appended lines and the last page, see {@link AppendableDocument}.
+	 * @param aOutputStream	{@link OutputStream} to write PDF to. Not closed.
+	 * @return	{@link AppendableDocument} of rendered document, {@code null} if rendering failed.
+	 */
+	public AppendableDocument renderAppendable(OutputStream aOutputStream){
+		PrintTask vTask = new PrintTask(null);
+		PageLayout vPageLayout = getPageLayout();
+		LineSource vLines = takePageLines(vPageLayout, 1, Integer.MAX_VALUE, vTask, null);
+		if( vTask.isDone() ){
+			return null;
+		}
+		
+		try{
+			return AppendableDocument.create(vPageLayout, vLines, mRenderPool, aOutputStream);
+		} catch(IOException e){
+			e.printStackTrace();
+		} finally{
+			closeContentSource(vLines);
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Renders pages as PDF into memory, without any print dialog or printer.
+	 * @return	{@code byte} array of PDF document, {@code null} if rendering failed.
+	 */
+	public byte[] renderToBytes(){
+		ByteArrayOutputStream vOutputStream = new ByteArrayOutputStream();
+		if( render(vOutputStream) ){
+			return vOutputStream.toByteArray();
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Renders pages as PDF to a stream asynchronously on a new thread,
+	 * see {@link #renderAsync(OutputStream, PrintProgressListener, Executor)}.
+	 * @param aOutputStream	{@link OutputStream} to write PDF to. Not closed.
+	 * @param aListener		{@link PrintProgressListener} to notify, may be {@code null}.
+	 * @return	{@link PrintTask} of rendering, {@code true} if rendered successfull, {@code false} otherwise.
+	 */
+	public PrintTask renderAsync(OutputStream aOutputStream, PrintProgressListener aListener){
+		return renderAsync(aOutputStream, aListener, NEW_THREAD_EXECUTOR);
+	}
+	
+	/**
+	 * Renders pages as PDF to a stream asynchronously, current content and settings are taken when called.
+	 * The returned task reports pages laid out and bytes written and can be cancelled between pages.
+	 * @param aOutputStream	{@link OutputStream} to write PDF to. Not closed.
+	 * @param aListener		{@link PrintProgressListener} to notify, may be {@code null}.
+	 * @param aExecutor		{@link Executor} to render on.
+	 * @return	{@link PrintTask} of rendering, {@code true} if rendered successfull, {@code false} otherwise.
+	 */
+	public PrintTask renderAsync(final OutputStream aOutputStream, PrintProgressListener aListener, Executor aExecutor){
+		final PrintTask vTask = new PrintTask(aListener);
+		final PageLayout vPageLayout = getPageLayout();
+		final ForkJoinPool vRenderPool = mRenderPool;
+		final JobMetrics vMetrics = JobMetrics.create(mMetrics);
+		final LineSource vLines = takePageLines(vPageLayout, 1, Integer.MAX_VALUE, vTask, vMetrics);
+		if( !vTask.isDone() ){
+			aExecutor.execute(() -> vTask.complete( renderDocument(vPageLayout, vLines, vRenderPool, aOutputStream, vTask, vMetrics) ));
+		}
+		
+		return vTask;
+	}
+	
+	/**
+	 * Lays out lines and writes it as PDF, reporting progress to a task.
+	 * @param aPageLayout		{@link PageLayout} to lay out lines with.
+	 * @param aLines			{@link LineSource} of lines to put on pages, may be {@code null}. Closed.
+	 * @param aRenderPool		{@link ForkJoinPool} to encode pages on, may be {@code null}.
+	 * @param aOutputStream		{@link OutputStream} to write PDF to. Not closed.
+	 * @param aTask				{@link PrintTask} to report progress to.
+	 * @param aMetrics			{@link JobMetrics} to record phases in, {@code null} if disabled.
+	 * @return	{@code true} if rendered successfull, {@code false} otherwise.
+	 */
+	private boolean renderDocument(PageLayout aPageLayout, LineSource aLines, ForkJoinPool aRenderPool,
+			OutputStream aOutputStream, PrintTask aTask, JobMetrics aMetrics){
+		
+		PrintJobEvent vEvent = new PrintJobEvent();
+		vEvent.begin();
+		
+		PDDocument vDocument = null;
+		boolean vRendered = false;
+		try{
 			
-			// close content stream
-			vContent.endText();
-			vContent.close();
+			vDocument = aPageLayout.createDocumentOfLines(aLines, aRenderPool, aTask, aMetrics);
+			closeContentSource(aLines);
+			aLines = null;
 			
-			// print document
-			PrinterJob vPrinterJob = PrinterJob.getPrinterJob();
-			vPrinterJob.setPageable( new PDFPageable(vDocument) );
-			if( vPrinterJob.printDialog() ){
-				vPrinterJob.print();
-				vDocument.close();
-				return true;			
+			long vStart = aMetrics != null ? aMetrics.start() : 0;
+			vDocument.save( new BufferedOutputStream(new ProgressOutputStream(aOutputStream, aTask, aMetrics), PROGRESS_BUFFER_SIZE) );
+			if( aMetrics != null ){
+				aMetrics.phase(Phase.SERIALIZATION, vStart);
 			}
-			
-//			vDocument.save("out.pdf");
-			vDocument.close();
+			vRendered = true;
 			
 		} catch(Exception e){
+			if( !aTask.isCancelRequested() ){
+				e.printStackTrace();
+			}
+		} finally{
+			closeContentSource(aLines);
+			closeDocument(vDocument);
+			if( aMetrics != null ){
+				aMetrics.complete(vRendered);
+			}
+			if( vEvent.shouldCommit() ){
+				vEvent.kind = PrintJobEvent.RENDER;
+				vEvent.pages = aTask.getPagesLaidOut();
+				vEvent.bytes = aTask.getBytesWritten();
+				vEvent.successful = vRendered;
+				vEvent.commit();
+			}
+		}
+		
+		return vRendered;
+	}
+	
+	/**
+	 * Creates a pageable drawing pages of a page range of content for a task, if content is set as {@link String}.
+	 * Completes task with {@code false}, if content could not be indexed or range starts after last page.
+	 * @param aPageLayout	{@link PageLayout} to lay out pages with.
+	 * @param aFromPage		First page, starting at {@code 1}.
+	 * @param aToPage		Last page, inclusive.
+	 * @param aTask			{@link PrintTask} to create pageable for.
+	 * @param aMetrics		{@link JobMetrics} of task, {@code null} if disabled.
+	 * @return	{@link Pageable} of pages, {@code null} if content is not set as {@link String} or indexing failed.
+	 * @throws IllegalArgumentException	if page range is invalid.
+	 */
+	private Pageable takePageable(PageLayout aPageLayout, int aFromPage, int aToPage,
+			PrintTask aTask, JobMetrics aMetrics){
+		if( !isIndexedContent() ){
+			return null;
+		}
+		
+		PageLayout.checkPageRange(aFromPage, aToPage);
+		try{
+			PageIndex vPageIndex = getContentPageIndex(aPageLayout, aMetrics);
+			if( aFromPage > 1 && aFromPage > vPageIndex.getPageCount() ){
+				throw new IOException("Page range " + aFromPage + "-" + aToPage + " starts after last page " + vPageIndex.getPageCount());
+			}
+			int vPageCount = Math.min(aToPage, vPageIndex.getPageCount()) - aFromPage + 1;
+			return new LayoutPageable(vPageIndex, getContentIndex(aMetrics), aFromPage, vPageCount, aMetrics);
+		} catch(IOException e){
 			e.printStackTrace();
+			aTask.complete(false);
+			if( aMetrics != null ){
+				aMetrics.complete(false);
+			}
 		}
 		
-		return false;		
+		return null;
+	}
+	
+	/**
+	 * Opens lines of a page range of content for a task. A source set by {@link #setContentSource(LineSource)}
+	 * is handed over to the task. Completes task with {@code false}, if content could not be opened.
+	 * If range starts after last page, opening or reading lines fails.
+	 * @param aPageLayout	{@link PageLayout} to lay out lines with.
+	 * @param aFromPage		First page, starting at {@code 1}.
+	 * @param aToPage		Last page, inclusive.
+	 * @param aTask			{@link PrintTask} to open content for.
+	 * @param aMetrics		{@link JobMetrics} of task, {@code null} if disabled.
+	 * @return	{@link LineSource} of lines to put on pages, {@code null} if no content is set or opening failed.
+	 * @throws IllegalArgumentException	if page range is invalid.
+	 */
+	private LineSource takePageLines(PageLayout aPageLayout, int aFromPage, int aToPage,
+			PrintTask aTask, JobMetrics aMetrics){
+		try{
+			if( isIndexedContent() ){
+				PageIndex vPageIndex = mPageIndex;
+				if( vPageIndex != null && vPageIndex.getPageLayout() == aPageLayout ){
+					return vPageIndex.openPages(getContentIndex(aMetrics), aFromPage, aToPage);
+				}
+				return aPageLayout.openPages(getContentIndex(aMetrics), aFromPage, aToPage);
+			}
+			
+			LineSource vLines = aPageLayout.openPages(openContentSource(aMetrics), aFromPage, aToPage);
+			mContentSource = null;
+			return vLines;
+		} catch(IOException e){
+			e.printStackTrace();
+			aTask.complete(false);
+			if( aMetrics != null ){
+				aMetrics.complete(false);
+			}
+		}
+		
+		return null;
 	}
-
-
 	
 	/**
-	 * @return	Page content {@link String} if set, {@code null} otehrwise.
+	 * Prepares a fresh JVM for printing, so the first print job is about as fast as later ones.
+	 * Loads the Standard 14 fonts and their precomputed metrics and renders a small sample document
+	 * with default settings, loading all classes needed for rendering.
+	 * Call it early, for example from a background thread while parsing command line arguments.
+	 * @return	{@code true} if warm up was successfull, {@code false} otherwise.
+	 */
+	public static boolean warmUp(){
+		EasyPrinter vPrinter = new EasyPrinter("Warm up\nWarm up", "Warm up", "Warm up");
+		if( vPrinter.renderToBytes() == null ){
+			return false;
+		}
+	
+		vPrinter.setWordWrap(true);
+		return vPrinter.renderToBytes() != null;
+	}
+	
+	/**
+	 * Closes a document, may be {@code null}.
+	 * @param aDocument	{@link PDDocument} to close.
+	 */
+	private void closeDocument(PDDocument aDocument){
+		if( aDocument == null )
+			return;
+		
+		try {
+			aDocument.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Closes a content source opened by {@link #openContentSource(JobMetrics)}.
+	 * A source set by {@link #setContentSource(LineSource)} is consumed afterwards.
+	 * @param aContentSource	{@link LineSource} to close, may be {@code null}.
+	 */
+	private void closeContentSource(LineSource aContentSource){
+		if( aContentSource == null )
+			return;
+		
+		if( aContentSource == mContentSource )
+			mContentSource = null;
+		
+		try {
+			aContentSource.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	
+	
+	/**
+	 * @return	Page content {@link String} if set, {@code null} otehrwise (also if content is streamed).
 	 */
 	public String getContent(){
 		return mContent;
@@ -271,6 +926,59 @@ public class EasyPrinter {
 	 */
 	public void setContent(String aContent){
 		mContent = aContent;
+		mContentIndex = null;
+		mPageIndex = null;
+		mContentDigest = null;
+		mContentPath = null;
+		mContentSource = null;
+	}
+	
+	/**
+	 * Sets page content to a text file, that is read line by line while printing.
+	 * The file is opened again on every print and memory mapped, if the charset is ASCII compatible.
+	 * @param aContentPath	{@link Path} of content text file.
+	 * @param aCharset		{@link Charset} of content text file.
+	 */
+	public void setContent(Path aContentPath, Charset aCharset){
+		setContent((String) null);
+		mContentPath = aContentPath;
+		mContentCharset = aCharset;
+	}
+	
+	/**
+	 * Sets page content to a UTF-8 text file, that is read line by line while printing.
+	 * @param aContentPath	{@link Path} of content text file.
+	 */
+	public void setContent(Path aContentPath){
+		setContent(aContentPath, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Sets page content to lines read from a {@link Reader}.
+	 * The reader is consumed and closed by the next print.
+	 * @param aReader	{@link Reader} of content text.
+	 */
+	public void setContent(Reader aReader){
+		setContentSource( new ReaderLineSource(aReader) );
+	}
+	
+	/**
+	 * Sets page content to lines of an {@link Iterator}.
+	 * The iterator is consumed by the next print.
+	 * @param aLines	{@link Iterator} of content lines.
+	 */
+	public void setContent(Iterator<? extends CharSequence> aLines){
+		setContentSource( new IteratorLineSource(aLines) );
+	}
+	
+	/**
+	 * Sets page content source.
+	 * The source is consumed and closed by the next print.
+	 * @param aContentSource	{@link LineSource} of content lines.
+	 */
+	public void setContentSource(LineSource aContentSource){
+		setContent((String) null);
+		mContentSource = aContentSource;
 	}
 	
 	/**
@@ -279,37 +987,40 @@ public class EasyPrinter {
 	public String getHeader() {
 		return mHeader;
 	}
-
+	
 	/**
 	 * Sets page header.
 	 * @param aHeader	{@link String} of header text.
 	 */
 	public void setHeader(String aHeader) {
 		mHeader = aHeader;
+		mPageLayout = null;
 	}
-
+	
 	/**
 	 * @return	Page footer {@link String} if set, {@code null} otherwise.
 	 */
 	public String getFooter() {
 		return mFooter;
 	}
-
+	
 	/**
 	 * Sets page footer
 	 * @param aFooter	{@link String} of footer text.
 	 */
 	public void setFooter(String aFooter) {
 		mFooter = aFooter;
+		mPageLayout = null;
 	}
 	
-
+	
 	/**
 	 * Sets font size in pt, default is 12pt.
 	 * @param mFontSize	{@link Integer} font size in pt.
 	 */
 	public void setFontSize(int aFontSize){
 		mFontSize = aFontSize;
+		mPageLayout = null;
 	}	
 	
 	/**
@@ -319,125 +1030,164 @@ public class EasyPrinter {
 		return mFontSize;
 	}
 	
-
+	
 	/**
 	 * @return	Page text font type. Default: {@link PDType1Font}.HELVETICA
 	 */
 	public PDFont getFont() {
 		return mFont;
 	}
-
+	
 	/**
 	 * Sets page text font type.
 	 * @param aFont	Page text font type (see {@link PDType1Font}).
 	 */
 	public void setFont(PDFont aFont) {
 		mFont = aFont;
+		mPageLayout = null;
+		mRegisteredFont = null;
 	}
-
+	
+	/**
+	 * Sets page text font to a font of the {@link FontRegistry}.
+	 * The font is embedded into every printed document.
+	 * @param aFont	{@link RegisteredFont} of page text.
+	 */
+	public void setFont(RegisteredFont aFont) {
+		setFont( aFont.getMetricsFont() );
+		mRegisteredFont = aFont;
+	}
+	
 	/**
 	 * @return	Page header font size.
 	 */
 	public int getHeaderFontSize() {
 		return mHeaderFontSize;
 	}
-
+	
 	/**
 	 * Sets page header font size, default is 20pt.
 	 * @param aHeaderFontSize	Page header font size in pt.
 	 */
 	public void setHeaderFontSize(int aHeaderFontSize) {
 		mHeaderFontSize = aHeaderFontSize;
+		mPageLayout = null;
 	}
-
+	
 	/**
 	 * @return	Page header font type (see {@link PDType1Font}).
 	 */
 	public PDFont getHeaderFont() {
 		return mHeaderFont;
 	}
-
+	
 	/**
 	 * Sets page header font type. Default: {@link PDType1Font}.HELVETICA_BOLD
 	 * @param aHeaderFont	Page header font type (see {@link PDType1Font}).
 	 */
 	public void setHeaderFont(PDFont aHeaderFont) {
 		mHeaderFont = aHeaderFont;
+		mPageLayout = null;
+		mRegisteredHeaderFont = null;
 	}
-
+	
+	/**
+	 * Sets page header font to a font of the {@link FontRegistry}.
+	 * @param aHeaderFont	{@link RegisteredFont} of page header.
+	 */
+	public void setHeaderFont(RegisteredFont aHeaderFont) {
+		setHeaderFont( aHeaderFont.getMetricsFont() );
+		mRegisteredHeaderFont = aHeaderFont;
+	}
+	
 	/**
 	 * @return	Page footer font size in pt
 	 */
 	public int getFooterFontSize() {
 		return mFooterFontSize;
 	}
-
+	
 	/**
 	 * Sets page footer font size, default is 10pt. 
 	 * @param aFooterFontSize
 	 */
 	public void setFooterFontSize(int aFooterFontSize) {
 		mFooterFontSize = aFooterFontSize;
+		mPageLayout = null;
 	}
-
+	
 	/**
 	 * @return	Page footer font type (see {@link PDType1Font}).
 	 */
 	public PDFont getFooterFont() {
 		return mFooterFont;
 	}
-
+	
 	/**
 	 * Sets page footer font type. Default: {@link PDType1Font}.HELVETICA
 	 * @param aFooterFont	Page footer font type (see {@link PDType1Font}).
 	 */
 	public void setFooterFont(PDFont aFooterFont) {
 		mFooterFont = aFooterFont;
+		mPageLayout = null;
+		mRegisteredFooterFont = null;
 	}
-
+	
+	/**
+	 * Sets page footer font to a font of the {@link FontRegistry}.
+	 * @param aFooterFont	{@link RegisteredFont} of page footer.
+	 */
+	public void setFooterFont(RegisteredFont aFooterFont) {
+		setFooterFont( aFooterFont.getMetricsFont() );
+		mRegisteredFooterFont = aFooterFont;
+	}
+	
 	/**
 	 * @return Page top border in mm.
 	 */
 	public float getBorderTop() {
 		return (mBorderTop * 25.4f) / 72.0f;
 	}
-
+	
 	/**
 	 * Sets page top border.
 	 * @param borderTop	Top border in m.  Default: 20mm.
 	 */
 	public void setBorderTop(float borderTop) {
 		mBorderTop = (borderTop * 72.0f) / 25.4f;
+		mPageLayout = null;
 	}
-
+	
 	/**
 	 * @return Page bottom border in mm.
 	 */
 	public float getBoderBottom() {
 		return (mBoderBottom * 25.4f) / 72.0f;
 	}
-
+	
 	/**
 	 * Sets page bottom border.
 	 * @param boderBottom	Page bottom border in mm. Default: 20mm.
 	 */
 	public void setBoderBottom(int boderBottom) {
 		mBoderBottom = (boderBottom * 72.0f) / 25.4f;
+		mPageLayout = null;
 	}
-
+	
 	/**
 	 * @return Page left border in m.
 	 */
 	public float getBorderLeft() {
 		return (mBorderLeft * 25.4f) / 72.0f;
 	}
-
+	
 	/**
 	 * Sets page left border.
 	 * @param borderLeft	Page left border in mm. Default: 20mm.
 	 */
 	public void setBorderLeft(int borderLeft) {
 		mBorderLeft = (borderLeft * 72.0f) / 25.4f;
+		mPageLayout = null;
 	}
 	
 	/**
@@ -449,20 +1199,114 @@ public class EasyPrinter {
 		setBoderBottom(border);
 		setBorderTop(border);
 	}
-
+	
+	/**
+	 * @return	{@code true} if content lines are wrapped to page width.
+	 */
+	public boolean isWordWrap() {
+		return mWordWrap;
+	}
+	
+	/**
+	 * Sets wrapping of content lines, that are wider than page width without borders.
+	 * Lines are broken at whitespace if possible. Default: {@code false}.
+	 * @param aWordWrap	{@code true} to wrap content lines.
+	 */
+	public void setWordWrap(boolean aWordWrap) {
+		mWordWrap = aWordWrap;
+		mPageLayout = null;
+	}
+	
 	/**
 	 * @return {@link PDRectangle} page format.
 	 */
 	public PDRectangle getPageFormat() {
 		return mPageFormat;
 	}
-
+	
 	/**
 	 * Sets page format.
 	 * @param pageFormat	{@link PDRectangle} page format. Default is {@link PDRectangle}.A4
 	 */
 	public void setPageFormat(PDRectangle pageFormat) {
 		this.mPageFormat = pageFormat;
+		mPageLayout = null;
+	}
+	
+	/**
+	 * @return	{@link MemoryUsageSetting} used for buffering page content while printing.
+	 */
+	public MemoryUsageSetting getMemoryUsageSetting() {
+		return mMemoryUsageSetting;
+	}
+	
+	/**
+	 * Sets how page content is buffered while printing. Default: {@link MemoryUsageSetting#setupMainMemoryOnly()}.
+	 * Use {@link MemoryUsageSetting#setupTempFileOnly()} or {@link MemoryUsageSetting#setupMixed(long)}
+	 * for large documents to keep heap usage independent of page count.
+	 * @param aMemoryUsageSetting	{@link MemoryUsageSetting} for page content buffering.
+	 */
+	public void setMemoryUsageSetting(MemoryUsageSetting aMemoryUsageSetting) {
+		mMemoryUsageSetting = aMemoryUsageSetting;
+		mPageLayout = null;
+	}
+	
+	/**
+	 * Buffers page content in a temporary scratch file instead of heap.
+	 * @param aScratchDirectory	{@link File} directory for scratch file, {@code null} for system temp directory.
+	 */
+	public void setScratchFileBuffering(File aScratchDirectory) {
+		mMemoryUsageSetting = MemoryUsageSetting.setupTempFileOnly().setTempDir(aScratchDirectory);
+		mPageLayout = null;
+	}
+	
+	/**
+	 * @return	{@link ForkJoinPool} pages are encoded on, {@code null} if pages are encoded sequentially.
+	 */
+	public ForkJoinPool getRenderPool() {
+		return mRenderPool;
+	}
+	
+	/**
+	 * Sets pool to encode pages on in parallel. Speeds up rendering of large documents on multi core systems.
+	 * Content lines are read in batches of pages, that are kept in memory while encoded. Default: {@code null}.
+	 * @param aRenderPool	{@link ForkJoinPool} to encode pages on, {@code null} to encode pages sequentially.
+	 */
+	public void setRenderPool(ForkJoinPool aRenderPool) {
+		mRenderPool = aRenderPool;
+	}
+	
+	/**
+	 * @return	{@link PrintMetrics} phases of print and render jobs are reported to.
+	 */
+	public PrintMetrics getMetrics() {
+		return mMetrics;
+	}
+	
+	/**
+	 * Sets metrics to report phases, pages and bytes of print and render jobs to.
+	 * Default: {@link PrintMetrics#NONE}, jobs are not measured at all.
+	 * @param aMetrics	{@link PrintMetrics} to report to, {@code null} for {@link PrintMetrics#NONE}.
+	 */
+	public void setMetrics(PrintMetrics aMetrics) {
+		mMetrics = aMetrics != null ? aMetrics : PrintMetrics.NONE;
+	}
+	
+	/**
+	 * @return	{@link RenderCache} of rendered documents, {@code null} if disabled.
+	 */
+	public RenderCache getRenderCache() {
+		return mRenderCache;
+	}
+	
+	/**
+	 * Sets cache of rendered documents. Synchronous renderings of {@link String} content are served from the cache,
+	 * if a document of equal content, page range and settings was rendered before,
+	 * otherwise rendered into memory and added to the cache. Default: {@code null}, no cache.
+	 * @param aRenderCache	{@link RenderCache} to use, may be shared by many printers. {@code null} to disable cache.
+	 */
+	public void setRenderCache(RenderCache aRenderCache) {
+		mRenderCache = aRenderCache;
 	}
 	
 }
@@ -0,0 +1,110 @@
+package de.hanneseilers.easyprinter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+
+/**
+ * {@link InputStream} of a file that is still written, like {@code tail -f}.
+ * At the end of the file it waits until more bytes are written, so reading never ends until the stream is closed.
+ * If the file is truncated or replaced by a new file, for example by log rotation, the new content is read from its start.
+ */
+final class FollowingInputStream extends InputStream {
+	
+	private final Path mPath;
+	private final long mPollMillis;
+	private FileChannel mChannel;
+	private Object mFileKey;
+	private long mPosition;
+	private volatile boolean mClosed = false;
+	
+	/**
+	 * Constructor
+	 * @param aPath			{@link Path} of file to follow.
+	 * @param aFromEnd		{@code true} to read only bytes written after opening, {@code false} to read whole file.
+	 * @param aPollMillis	Time to wait in ms before checking file for more bytes.
+	 * @throws IOException	if file could not be opened.
+	 */
+	FollowingInputStream(Path aPath, boolean aFromEnd, long aPollMillis) throws IOException {
+		mPath = aPath;
+		mPollMillis = aPollMillis;
+		open();
+		mPosition = aFromEnd ? mChannel.size() : 0;
+	}
+	
+	private void open() throws IOException{
+		mChannel = FileChannel.open(mPath, StandardOpenOption.READ);
+		mFileKey = Files.readAttributes(mPath, BasicFileAttributes.class).fileKey();
+		mPosition = 0;
+	}
+	
+	@Override
+	public int read() throws IOException {
+		byte[] vByte = new byte[1];
+		return read(vByte, 0, 1) < 0 ? -1 : vByte[0] & 0xff;
+	}
+	
+	@Override
+	public int read(byte[] aBuffer, int aOffset, int aLength) throws IOException {
+		Objects.checkFromIndexSize(aOffset, aLength, aBuffer.length);
+		if( aLength == 0 ){
+			return 0;
+		}
+		
+		while( !mClosed ){
+			int vLength = mChannel.read(ByteBuffer.wrap(aBuffer, aOffset, aLength), mPosition);
+			if( vLength > 0 ){
+				mPosition += vLength;
+				return vLength;
+			}
+			
+			// at end of file, follow truncated or replaced file
+			if( mChannel.size() < mPosition ){
+				mPosition = 0;
+				continue;
+			}
+			if( isReplaced() ){
+				mChannel.close();
+				open();
+				continue;
+			}
+			
+			try{
+				Thread.sleep(mPollMillis);
+			} catch(InterruptedException e){
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for " + mPath);
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * @return	{@code true} if path refers to another file than the one read, {@code false} if it does not exist.
+	 * @throws IOException
+	 */
+	private boolean isReplaced() throws IOException{
+		try{
+			Object vFileKey = Files.readAttributes(mPath, BasicFileAttributes.class).fileKey();
+			return vFileKey != null && !vFileKey.equals(mFileKey);
+		} catch(NoSuchFileException e){
+			return false;
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		mClosed = true;
+		mChannel.close();
+	}
+
+}
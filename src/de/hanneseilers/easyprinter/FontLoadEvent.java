@@ -0,0 +1,29 @@
+package de.hanneseilers.easyprinter;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of parsing a font file or creating a font instance of a registered font for a document.
+ */
+@Name("de.hanneseilers.easyprinter.FontLoad")
+@Label("Font Load")
+@Category("EasyPrinter")
+@Description("Parsing of a registered font file or creation of a registered font instance for a document")
+final class FontLoadEvent extends Event {
+	
+	@Label("Font File")
+	String path;
+	
+	@Label("Embedded")
+	@Description("True if a font instance was created for a document, false if a font file was parsed")
+	boolean embedded;
+	
+	@Label("Subset")
+	@Description("True if the font instance is embedded as subset on save, false if its font file is embedded completely")
+	boolean subset;
+	
+}
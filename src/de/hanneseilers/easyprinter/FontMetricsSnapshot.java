@@ -0,0 +1,184 @@
+package de.hanneseilers.easyprinter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+/**
+ * Precomputed widths and codes of the Latin-1 range of the Standard 14 fonts.
+ * The snapshot is generated at build time by {@link #main(String[])} into {@value #RESOURCE_NAME}
+ * and used to fill {@link GlyphWidthCache} and {@link GlyphEncodingCache} of the
+ * {@link PDType1Font} constants, so they never have to ask the font metrics.
+ * If the resource is missing, caches are filled from the fonts as usual.
+ */
+final class FontMetricsSnapshot {
+	
+	static final String RESOURCE_NAME = "font-metrics.bin";
+	
+	private static final int MAGIC = 0x4A455046;
+	private static final int VERSION = 1;
+	private static final int LATIN_RANGE = 256;
+	private static final int NO_CODE = -1;
+	
+	private static volatile Map<PDFont, FontMetricsSnapshot> sSnapshots = null;
+	
+	private final float[] mWidths;
+	private final short[] mCodes;
+	
+	/**
+	 * @return	Array of {@link PDType1Font} constants, loading the Standard 14 fonts on first call.
+	 */
+	private static PDType1Font[] getStandardFonts(){
+		return new PDType1Font[]{
+		PDType1Font.TIMES_ROMAN, PDType1Font.TIMES_BOLD, PDType1Font.TIMES_ITALIC, PDType1Font.TIMES_BOLD_ITALIC,
+		PDType1Font.HELVETICA, PDType1Font.HELVETICA_BOLD, PDType1Font.HELVETICA_OBLIQUE, PDType1Font.HELVETICA_BOLD_OBLIQUE,
+		PDType1Font.COURIER, PDType1Font.COURIER_BOLD, PDType1Font.COURIER_OBLIQUE, PDType1Font.COURIER_BOLD_OBLIQUE,
+		PDType1Font.SYMBOL, PDType1Font.ZAPF_DINGBATS };
+	}
+	
+	/**
+	 * Constructor
+	 * @param aWidths	Widths of Latin-1 characters, {@link Float#NaN} if not in font encoding.
+	 * @param aCodes	Codes of Latin-1 characters, {@value #NO_CODE} if not in font encoding.
+	 */
+	private FontMetricsSnapshot(float[] aWidths, short[] aCodes) {
+		mWidths = aWidths;
+		mCodes = aCodes;
+	}
+	
+	/**
+	 * @param aFont	{@link PDFont} to get snapshot for.
+	 * @return	{@link FontMetricsSnapshot} of font or {@code null},
+	 * 			if font is no {@link PDType1Font} constant or snapshot resource is missing.
+	 */
+	static FontMetricsSnapshot forFont(PDFont aFont){
+		if( !(aFont instanceof PDType1Font) ){
+			return null;
+		}
+		
+		Map<PDFont, FontMetricsSnapshot> vSnapshots = sSnapshots;
+		if( vSnapshots == null ){
+			synchronized (FontMetricsSnapshot.class) {
+				vSnapshots = sSnapshots;
+				if( vSnapshots == null ){
+					vSnapshots = load();
+					sSnapshots = vSnapshots;
+				}
+			}
+		}
+		
+		return vSnapshots.get(aFont);
+	}
+	
+	/**
+	 * Reads snapshot resource.
+	 * @return	{@link Map} of snapshots by font, empty if resource is missing or invalid.
+	 */
+	private static Map<PDFont, FontMetricsSnapshot> load(){
+		Map<PDFont, FontMetricsSnapshot> vSnapshots = new IdentityHashMap<PDFont, FontMetricsSnapshot>();
+		InputStream vResource = FontMetricsSnapshot.class.getResourceAsStream(RESOURCE_NAME);
+		if( vResource == null ){
+			return vSnapshots;
+		}
+		
+		try( DataInputStream vIn = new DataInputStream(new BufferedInputStream(vResource)) ){
+			if( vIn.readInt() != MAGIC || vIn.readInt() != VERSION ){
+				return vSnapshots;
+			}
+			
+			int vFontCount = vIn.readInt();
+			for( int i=0; i < vFontCount; i++ ){
+				String vName = vIn.readUTF();
+				float[] vWidths = new float[LATIN_RANGE];
+				short[] vCodes = new short[LATIN_RANGE];
+				for( int c=0; c < LATIN_RANGE; c++ ){
+					vWidths[c] = vIn.readFloat();
+					vCodes[c] = vIn.readShort();
+				}
+				
+				for( PDType1Font vFont : getStandardFonts() ){
+					if( vFont.getName().equals(vName) ){
+						vSnapshots.put(vFont, new FontMetricsSnapshot(vWidths, vCodes));
+					}
+				}
+			}
+		} catch(IOException e){
+			// snapshot is an optimization only, measure fonts instead
+			vSnapshots.clear();
+		}
+		
+		return vSnapshots;
+	}
+	
+	/**
+	 * Copies widths of characters in font encoding.
+	 * @param aWidths	{@code float} array of {@value #LATIN_RANGE} widths to fill.
+	 */
+	void copyWidths(float[] aWidths){
+		for( int c=0; c < LATIN_RANGE; c++ ){
+			if( mWidths[c] == mWidths[c] ){
+				aWidths[c] = mWidths[c];
+			}
+		}
+	}
+	
+	/**
+	 * Copies codes of characters in font encoding.
+	 * @param aCodes	Array of {@value #LATIN_RANGE} codes to fill.
+	 */
+	void copyCodes(byte[][] aCodes){
+		for( int c=0; c < LATIN_RANGE; c++ ){
+			if( mCodes[c] != NO_CODE ){
+				aCodes[c] = new byte[]{ (byte) mCodes[c] };
+			}
+		}
+	}
+	
+	/**
+	 * Writes snapshot of the Standard 14 fonts, used by the build.
+	 * @param args	Path of snapshot file to write.
+	 * @throws IOException	if snapshot could not be written.
+	 */
+	public static void main(String[] args) throws IOException {
+		File vFile = new File(args[0]);
+		vFile.getParentFile().mkdirs();
+		
+		try( DataOutputStream vOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(vFile))) ){
+			vOut.writeInt(MAGIC);
+			vOut.writeInt(VERSION);
+			PDType1Font[] vFonts = getStandardFonts();
+			vOut.writeInt(vFonts.length);
+			
+			for( PDType1Font vFont : vFonts ){
+				vOut.writeUTF( vFont.getName() );
+				for( int c=0; c < LATIN_RANGE; c++ ){
+					String vCharacter = String.valueOf( (char) c );
+					float vWidth = Float.NaN;
+					int vCode = NO_CODE;
+					try{
+						byte[] vBytes = vFont.encode(vCharacter);
+						if( vBytes.length == 1 ){
+							vWidth = vFont.getStringWidth(vCharacter);
+							vCode = vBytes[0] & 0xFF;
+						}
+					} catch(IllegalArgumentException e){
+						// not in font encoding
+					}
+					
+					vOut.writeFloat(vWidth);
+					vOut.writeShort(vCode);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,68 @@
+package de.hanneseilers.easyprinter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
+
+/**
+ * Process wide registry of TrueType and OpenType fonts with TrueType outlines.
+ * Each font file is read and parsed only once, the parsed font is shared by all threads for measuring and encoding text.
+ * Use the returned {@link RegisteredFont} with {@link EasyPrinter#setFont(RegisteredFont)}.
+ */
+public final class FontRegistry {
+	
+	private static final Map<Path, RegisteredFont> sFonts = new ConcurrentHashMap<Path, RegisteredFont>();
+	
+	private FontRegistry() {}
+	
+	/**
+	 * Returns registered font of a font file, parses and registers it if not registered yet.
+	 * @param aFontFile	{@link Path} of font file.
+	 * @return	{@link RegisteredFont} of file.
+	 * @throws IOException	if font file could not be parsed.
+	 */
+	public static RegisteredFont getFont(Path aFontFile) throws IOException{
+		Path vPath = aFontFile.toAbsolutePath().normalize();
+		RegisteredFont vFont = sFonts.get(vPath);
+		if( vFont == null ){
+			synchronized (sFonts) {
+				vFont = sFonts.get(vPath);
+				if( vFont == null ){
+					FontLoadEvent vEvent = new FontLoadEvent();
+					vEvent.begin();
+					byte[] vFontData = Files.readAllBytes(vPath);
+					TrueTypeFont vTrueTypeFont = new TTFParser().parse( vPath.toFile() );
+					vFont = new RegisteredFont(vPath, vTrueTypeFont, vFontData);
+					sFonts.put(vPath, vFont);
+					if( vEvent.shouldCommit() ){
+						vEvent.path = vPath.toString();
+						vEvent.commit();
+					}
+				}
+			}
+		}
+		
+		return vFont;
+	}
+	
+	/**
+	 * @param aFontFile	{@link Path} of font file.
+	 * @return	{@code true} if font file is already parsed and registered.
+	 */
+	public static boolean isRegistered(Path aFontFile){
+		return sFonts.containsKey( aFontFile.toAbsolutePath().normalize() );
+	}
+	
+	/**
+	 * Removes a font from registry. Documents still using the font are not affected.
+	 * @param aFontFile	{@link Path} of font file.
+	 */
+	public static void unregister(Path aFontFile){
+		sFonts.remove( aFontFile.toAbsolutePath().normalize() );
+	}
+	
+}
@@ -0,0 +1,123 @@
+package de.hanneseilers.easyprinter;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+
+/**
+ * Cache of character codes of a {@link PDFont}.
+ * Codes of the Latin-1 range are kept in an atomic array, all other code points in a map,
+ * so encoding text is an array lookup per character once the cache is warm.
+ * Fonts are only asked for codes not cached yet, synchronized on the font,
+ * so text can be encoded by many threads at once. Codes cached by one thread are published safely to all others.
+ * Characters encoded with a font that will be subset are added to its subset,
+ * the font has to be added to the fonts to subset of every document it is used in.
+ * There is one shared cache per font, use {@link #forFont(PDFont)} to get it.
+ */
+public final class GlyphEncodingCache {
+	
+	private static final int LATIN_RANGE = 256;
+	private static final Map<PDFont, GlyphEncodingCache> sCaches = new WeakHashMap<PDFont, GlyphEncodingCache>();
+	
+	private final WeakReference<PDFont> mFont;
+	private final AtomicReferenceArray<byte[]> mLatinCodes;
+	private final Map<Integer, byte[]> mCodes = new ConcurrentHashMap<Integer, byte[]>();
+	
+	/**
+	 * Constructor
+	 * @param aFont	{@link PDFont} to cache codes of.
+	 */
+	private GlyphEncodingCache(PDFont aFont) {
+		mFont = new WeakReference<PDFont>(aFont);
+		
+		byte[][] vLatinCodes = new byte[LATIN_RANGE][];
+		FontMetricsSnapshot vSnapshot = FontMetricsSnapshot.forFont(aFont);
+		if( vSnapshot != null ){
+			vSnapshot.copyCodes(vLatinCodes);
+		}
+		mLatinCodes = new AtomicReferenceArray<byte[]>(vLatinCodes);
+	}
+	
+	/**
+	 * @param aFont	{@link PDFont} to get cache for.
+	 * @return	Shared {@link GlyphEncodingCache} of font.
+	 */
+	public static GlyphEncodingCache forFont(PDFont aFont){
+		synchronized (sCaches) {
+			GlyphEncodingCache vCache = sCaches.get(aFont);
+			if( vCache == null ){
+				vCache = new GlyphEncodingCache(aFont);
+				sCaches.put(aFont, vCache);
+			}
+			
+			return vCache;
+		}
+	}
+	
+	/**
+	 * Returns code of a single character, like {@link PDFont#encode(String)} does.
+	 * The returned array must not be modified.
+	 * @param aCodePoint	Unicode code point of character.
+	 * @return	{@code byte} array of character code.
+	 * @throws IOException	if font could not encode character.
+	 * @throws IllegalArgumentException	if character is not available in font encoding.
+	 */
+	public byte[] getCode(int aCodePoint) throws IOException{
+		if( aCodePoint >= 0 && aCodePoint < LATIN_RANGE ){
+			byte[] vCode = mLatinCodes.get(aCodePoint);
+			if( vCode == null ){
+				vCode = encode(aCodePoint);
+				mLatinCodes.set(aCodePoint, vCode);
+			}
+			return vCode;
+		}
+		
+		byte[] vCode = mCodes.get(aCodePoint);
+		if( vCode == null ){
+			vCode = encode(aCodePoint);
+			mCodes.put(aCodePoint, vCode);
+		}
+		return vCode;
+	}
+	
+	/**
+	 * Adds all characters encoded so far to the subset of another font, that uses the same codes.
+	 * @param aFont	{@link PDFont} that will be subset.
+	 */
+	void addToSubset(PDFont aFont){
+		for( int i=0; i < LATIN_RANGE; i++ ){
+			if( mLatinCodes.get(i) != null ){
+				aFont.addToSubset(i);
+			}
+		}
+		for( Integer vCodePoint : mCodes.keySet() ){
+			aFont.addToSubset(vCodePoint);
+		}
+	}
+	
+	/**
+	 * Encodes a character using the font and adds it to the font subset, if the font will be subset.
+	 * @param aCodePoint	Unicode code point of character.
+	 * @return	{@code byte} array of character code.
+	 * @throws IOException
+	 */
+	private byte[] encode(int aCodePoint) throws IOException{
+		PDFont vFont = mFont.get();
+		if( vFont == null ){
+			throw new IllegalStateException("Font of glyph encoding cache was garbage collected");
+		}
+		
+		synchronized (vFont) {
+			byte[] vCode = vFont.encode( new String(Character.toChars(aCodePoint)) );
+			if( vFont.willBeSubset() ){
+				vFont.addToSubset(aCodePoint);
+			}
+			return vCode;
+		}
+	}
+	
+}
@@ -0,0 +1,132 @@
+package de.hanneseilers.easyprinter;
+
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.GeneralPath;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.pdfbox.pdmodel.font.PDCIDFontType2;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDSimpleFont;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+
+/**
+ * Cache of glyph outlines of a {@link PDFont}, for drawing text directly on a {@link java.awt.Graphics2D}.
+ * Outlines are scaled to glyph space units (1/1000 of font size) with the y axis pointing up,
+ * like widths of {@link GlyphWidthCache}, so text drawn with them matches rendered PDF pages.
+ * Characters are mapped to glyphs with the codes of {@link GlyphEncodingCache}.
+ * There is one shared cache per font, use {@link #forFont(PDFont)} to get it.
+ * Instances are thread-safe, fonts are only asked for outlines not cached yet, synchronized on the font.
+ */
+final class GlyphOutlineCache {
+	
+	private static final Map<PDFont, GlyphOutlineCache> sCaches = new WeakHashMap<PDFont, GlyphOutlineCache>();
+	
+	private final WeakReference<PDFont> mFont;
+	private final GlyphEncodingCache mCodes;
+	private final Map<Integer, Shape> mOutlines = new ConcurrentHashMap<Integer, Shape>();
+	
+	/**
+	 * Constructor
+	 * @param aFont	{@link PDFont} to cache outlines of.
+	 */
+	private GlyphOutlineCache(PDFont aFont) {
+		mFont = new WeakReference<PDFont>(aFont);
+		mCodes = GlyphEncodingCache.forFont(aFont);
+	}
+	
+	/**
+	 * @param aFont	{@link PDFont} to get cache for.
+	 * @return	Shared {@link GlyphOutlineCache} of font.
+	 */
+	static GlyphOutlineCache forFont(PDFont aFont){
+		synchronized (sCaches) {
+			GlyphOutlineCache vCache = sCaches.get(aFont);
+			if( vCache == null ){
+				vCache = new GlyphOutlineCache(aFont);
+				sCaches.put(aFont, vCache);
+			}
+			
+			return vCache;
+		}
+	}
+	
+	/**
+	 * Returns outline of a single character. The returned shape must not be modified.
+	 * @param aCodePoint	Unicode code point of character.
+	 * @return	{@link Shape} of glyph outline in glyph space units, empty for blank glyphs.
+	 * @throws IOException	if font could not read glyph.
+	 * @throws IllegalArgumentException	if character is not available in font encoding.
+	 */
+	Shape getOutline(int aCodePoint) throws IOException{
+		Shape vOutline = mOutlines.get(aCodePoint);
+		if( vOutline == null ){
+			vOutline = readOutline(aCodePoint);
+			mOutlines.put(aCodePoint, vOutline);
+		}
+		
+		return vOutline;
+	}
+	
+	/**
+	 * Reads outline of a character from font and scales it to glyph space units.
+	 * @param aCodePoint	Unicode code point of character.
+	 * @return	{@link Shape} of glyph outline.
+	 * @throws IOException
+	 */
+	private Shape readOutline(int aCodePoint) throws IOException{
+		PDFont vFont = mFont.get();
+		if( vFont == null ){
+			throw new IllegalStateException("Font of glyph outline cache was garbage collected");
+		}
+		
+		byte[] vCode = mCodes.getCode(aCodePoint);
+		synchronized (vFont) {
+			
+			// composite fonts, TrueType outlines are given in font units
+			if( vFont instanceof PDType0Font ){
+				PDType0Font vType0Font = (PDType0Font) vFont;
+				int vCID = 0;
+				for( byte vByte : vCode ){
+					vCID = (vCID << 8) | (vByte & 0xff);
+				}
+				
+				double vScale = 1;
+				if( vType0Font.getDescendantFont() instanceof PDCIDFontType2 ){
+					vScale = 1000.0 / ((PDCIDFontType2) vType0Font.getDescendantFont()).getTrueTypeFont().getUnitsPerEm();
+				}
+				return scale(vType0Font.getPath(vCID), vScale, vScale);
+			}
+			
+			// simple fonts, outlines are given in units of the font matrix of the font program
+			if( vFont instanceof PDSimpleFont ){
+				PDSimpleFont vSimpleFont = (PDSimpleFont) vFont;
+				String vName = vSimpleFont.getEncoding().getName(vCode[0] & 0xff);
+				List<Number> vMatrix = vSimpleFont.getFontBoxFont().getFontMatrix();
+				return scale(vSimpleFont.getPath(vName),
+						vMatrix.get(0).doubleValue() * 1000, vMatrix.get(3).doubleValue() * 1000);
+			}
+		}
+		
+		throw new IOException("Glyph outlines of font " + vFont.getName() + " are not supported");
+	}
+	
+	/**
+	 * @param aPath		{@link GeneralPath} to scale, may be {@code null}.
+	 * @param aScaleX	Horizontal scale factor.
+	 * @param aScaleY	Vertical scale factor.
+	 * @return	Scaled {@link Shape}, empty if path is {@code null}.
+	 */
+	private static Shape scale(GeneralPath aPath, double aScaleX, double aScaleY){
+		if( aPath == null ){
+			return new GeneralPath();
+		}
+		
+		return AffineTransform.getScaleInstance(aScaleX, aScaleY).createTransformedShape(aPath);
+	}
+
+}
@@ -0,0 +1,145 @@
+package de.hanneseilers.easyprinter;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+
+/**
+ * Cache of glyph advance widths of a {@link PDFont}.
+ * Widths of the Latin-1 range are kept in a {@code float} array, all other code points in a map,
+ * so measuring text is an array lookup per character once the cache is warm.
+ * There is one shared cache per font, use {@link #forFont(PDFont)} to get it.
+ * Instances are thread-safe, fonts are only asked for widths not cached yet, synchronized on the font.
+ */
+public final class GlyphWidthCache {
+
+	private static final int LATIN_RANGE = 256;
+	private static final Map<PDFont, GlyphWidthCache> sCaches = new WeakHashMap<PDFont, GlyphWidthCache>();
+	
+	private final WeakReference<PDFont> mFont;
+	private final float[] mLatinWidths = new float[LATIN_RANGE];
+	private final Map<Integer, Float> mWidths = new ConcurrentHashMap<Integer, Float>();
+	
+	/**
+	 * Constructor
+	 * @param aFont	{@link PDFont} to cache widths of.
+	 */
+	private GlyphWidthCache(PDFont aFont) {
+		mFont = new WeakReference<PDFont>(aFont);
+		Arrays.fill(mLatinWidths, Float.NaN);
+		
+		FontMetricsSnapshot vSnapshot = FontMetricsSnapshot.forFont(aFont);
+		if( vSnapshot != null ){
+			vSnapshot.copyWidths(mLatinWidths);
+		}
+	}
+	
+	/**
+	 * @param aFont	{@link PDFont} to get cache for.
+	 * @return	Shared {@link GlyphWidthCache} of font.
+	 */
+	public static GlyphWidthCache forFont(PDFont aFont){
+		synchronized (sCaches) {
+			GlyphWidthCache vCache = sCaches.get(aFont);
+			if( vCache == null ){
+				vCache = new GlyphWidthCache(aFont);
+				sCaches.put(aFont, vCache);
+			}
+			
+			return vCache;
+		}
+	}
+	
+	/**
+	 * Returns advance width of a single character.
+	 * @param aCodePoint	Unicode code point of character.
+	 * @return	Width in glyph space units (1/1000 of font size).
+	 * @throws IOException	if font metrics could not be read.
+	 * @throws IllegalArgumentException	if character is not available in font encoding.
+	 */
+	public float getWidth(int aCodePoint) throws IOException{
+		if( aCodePoint >= 0 && aCodePoint < LATIN_RANGE ){
+			float vWidth = mLatinWidths[aCodePoint];
+			if( vWidth != vWidth ){
+				vWidth = measure(aCodePoint);
+				mLatinWidths[aCodePoint] = vWidth;
+			}
+			return vWidth;
+		}
+		
+		Float vWidth = mWidths.get(aCodePoint);
+		if( vWidth == null ){
+			vWidth = measure(aCodePoint);
+			mWidths.put(aCodePoint, vWidth);
+		}
+		return vWidth;
+	}
+	
+	/**
+	 * Measures a character using font metrics.
+	 * @param aCodePoint	Unicode code point of character.
+	 * @return	Width in glyph space units.
+	 * @throws IOException
+	 */
+	private float measure(int aCodePoint) throws IOException{
+		PDFont vFont = mFont.get();
+		if( vFont == null ){
+			throw new IllegalStateException("Font of glyph width cache was garbage collected");
+		}
+		
+		synchronized (vFont) {
+			return vFont.getStringWidth( new String(Character.toChars(aCodePoint)) );
+		}
+	}
+	
+	/**
+	 * Returns width of a text in glyph space units, like {@link PDFont#getStringWidth(String)}.
+	 * @param aText	{@link CharSequence} of text to measure.
+	 * @return	Width in glyph space units (1/1000 of font size).
+	 * @throws IOException	if font metrics could not be read.
+	 * @throws IllegalArgumentException	if a character is not available in font encoding.
+	 */
+	public float getStringWidth(CharSequence aText) throws IOException{
+		float vWidth = 0;
+		for( int i=0; i < aText.length(); ){
+			int vCodePoint = Character.codePointAt(aText, i);
+			vWidth += getWidth(vCodePoint);
+			i += Character.charCount(vCodePoint);
+		}
+		
+		return vWidth;
+	}
+	
+	/**
+	 * Returns width of a text for a font size.
+	 * @param aText		{@link CharSequence} of text to measure.
+	 * @param aFontSize	Font size in pt.
+	 * @return	Width in pt.
+	 * @throws IOException	if font metrics could not be read.
+	 * @throws IllegalArgumentException	if a character is not available in font encoding.
+	 */
+	public float getStringWidth(CharSequence aText, float aFontSize) throws IOException{
+		return getStringWidth(aText) / 1000f * aFontSize;
+	}
+	
+	/**
+	 * Measures all printable characters of the Latin-1 range,
+	 * so later measurements of Latin text never have to read font metrics.
+	 * Characters not available in font encoding are skipped.
+	 * @throws IOException	if font metrics could not be read.
+	 */
+	public void warmUp() throws IOException{
+		for( int vCodePoint = ' '; vCodePoint < LATIN_RANGE; vCodePoint++ ){
+			try{
+				getWidth(vCodePoint);
+			} catch(IllegalArgumentException e){
+				// not in font encoding
+			}
+		}
+	}
+	
+}
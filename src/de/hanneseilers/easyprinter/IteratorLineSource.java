@@ -0,0 +1,33 @@
+package de.hanneseilers.easyprinter;
+
+import java.util.Iterator;
+
+/**
+ * {@link LineSource} reading lines from an {@link Iterator}.
+ * Each element of the iterator is one line of content.
+ */
+public class IteratorLineSource implements LineSource {
+
+	private Iterator<? extends CharSequence> mIterator;
+	
+	/**
+	 * Constructor
+	 * @param aIterator	{@link Iterator} of lines.
+	 */
+	public IteratorLineSource(Iterator<? extends CharSequence> aIterator) {
+		mIterator = aIterator;
+	}
+	
+	@Override
+	public CharSequence nextLine() {
+		if( mIterator.hasNext() ){
+			return mIterator.next();
+		}
+		
+		return null;
+	}
+
+	@Override
+	public void close() {}
+
+}
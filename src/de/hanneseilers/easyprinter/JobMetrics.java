@@ -0,0 +1,85 @@
+package de.hanneseilers.easyprinter;
+
+import de.hanneseilers.easyprinter.PrintMetrics.Phase;
+
+/**
+ * Metrics recorder of a single job, passing measurements to {@link PrintMetrics} and summing them up.
+ * Jobs without metrics use {@code null} instead of a recorder, so nothing is timed.
+ * Not thread-safe, used by the thread running the job only.
+ */
+final class JobMetrics {
+
+	private final PrintMetrics mMetrics;
+	private final long mStartNanos = System.nanoTime();
+	private final long[] mPhaseNanos = new long[Phase.values().length];
+	private int mPages = 0;
+	private long mBytes = 0;
+	
+	/**
+	 * Constructor
+	 * @param aMetrics	{@link PrintMetrics} to pass measurements to.
+	 */
+	private JobMetrics(PrintMetrics aMetrics) {
+		mMetrics = aMetrics;
+	}
+	
+	/**
+	 * @param aMetrics	{@link PrintMetrics} of job, may be {@code null}.
+	 * @return	New {@link JobMetrics}, {@code null} if metrics are {@code null} or {@link PrintMetrics#NONE}.
+	 */
+	static JobMetrics create(PrintMetrics aMetrics){
+		if( aMetrics == null || aMetrics == PrintMetrics.NONE ){
+			return null;
+		}
+		
+		return new JobMetrics(aMetrics);
+	}
+	
+	/**
+	 * @return	Current time in nanoseconds, to pass to {@link #phase(Phase, long)}.
+	 */
+	long start(){
+		return System.nanoTime();
+	}
+	
+	/**
+	 * Records time of a phase.
+	 * @param aPhase		{@link Phase} finished.
+	 * @param aStartNanos	Start time returned by {@link #start()} or a previous phase.
+	 * @return	Current time in nanoseconds, start time of a following phase.
+	 */
+	long phase(Phase aPhase, long aStartNanos){
+		long vNow = System.nanoTime();
+		long vNanos = vNow - aStartNanos;
+		mPhaseNanos[aPhase.ordinal()] += vNanos;
+		mMetrics.phaseCompleted(aPhase, vNanos);
+		return vNow;
+	}
+	
+	/**
+	 * Records pages added to document.
+	 * @param aPages	Number of pages.
+	 */
+	void pages(int aPages){
+		mPages += aPages;
+		mMetrics.pagesCompleted(aPages);
+	}
+	
+	/**
+	 * Records PDF bytes written.
+	 * @param aBytes	Number of bytes.
+	 */
+	void bytes(long aBytes){
+		mBytes += aBytes;
+		mMetrics.bytesWritten(aBytes);
+	}
+	
+	/**
+	 * Reports summary of job.
+	 * @param aSuccessful	{@code true} if job finished successfull.
+	 */
+	void complete(boolean aSuccessful){
+		mMetrics.jobCompleted( new PrintJobSummary(mPhaseNanos, System.nanoTime() - mStartNanos, mPages, mBytes, aSuccessful) );
+	}
+	
+}
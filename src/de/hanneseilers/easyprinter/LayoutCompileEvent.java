@@ -0,0 +1,27 @@
+package de.hanneseilers.easyprinter;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of compiling a {@link PageLayout}, including measuring header and footer lines.
+ */
+@Name("de.hanneseilers.easyprinter.LayoutCompile")
+@Label("Layout Compile")
+@Category("EasyPrinter")
+@Description("Compilation of a page layout, centering header and footer lines")
+final class LayoutCompileEvent extends Event {
+
+	@Label("Header Lines")
+	int headerLines;
+	
+	@Label("Footer Lines")
+	int footerLines;
+	
+	@Label("Max Lines")
+	int maxLines;
+	
+}
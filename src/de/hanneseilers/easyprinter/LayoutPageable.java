@@ -0,0 +1,119 @@
+package de.hanneseilers.easyprinter;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.print.PageFormat;
+import java.awt.print.Pageable;
+import java.awt.print.Printable;
+import java.awt.print.PrinterException;
+import java.io.IOException;
+
+/**
+ * {@link Pageable} of a range of pages, that are laid out and drawn by their {@link PageLayout}
+ * only when the {@link java.awt.print.PrinterJob} prints them.
+ * Each page is drawn straight from the content lines of the page, found by a {@link PageIndex},
+ * so no PDF document is created and memory usage does not depend on the number of pages.
+ * Pages may be printed more than once and in any order. A page is recorded in job metrics and as {@link PageRenderEvent}
+ * only if its index is higher than the index of all pages drawn before, so collated copies are not counted again.
+ */
+final class LayoutPageable implements Pageable, Printable {
+	
+	private final PageIndex mPageIndex;
+	private final LineIndex mContent;
+	private final int mFirstPage;
+	private final int mPageCount;
+	private final JobMetrics mMetrics;
+	private int mRecordedPageIndex = -1;
+	
+	/**
+	 * Constructor
+	 * @param aPageIndex	{@link PageIndex} of content.
+	 * @param aContent		{@link LineIndex} of content text, indexed by page index.
+	 * @param aFirstPage	First page to print, starting at {@code 1}.
+	 * @param aPageCount	Number of pages to print.
+	 * @param aMetrics		{@link JobMetrics} to record pages drawn in, {@code null} if disabled.
+	 */
+	LayoutPageable(PageIndex aPageIndex, LineIndex aContent, int aFirstPage, int aPageCount, JobMetrics aMetrics) {
+		mPageIndex = aPageIndex;
+		mContent = aContent;
+		mFirstPage = aFirstPage;
+		mPageCount = Math.max(0, aPageCount);
+		mMetrics = aMetrics;
+	}
+	
+	@Override
+	public int getNumberOfPages() {
+		return mPageCount;
+	}
+	
+	@Override
+	public PageFormat getPageFormat(int aPageIndex) {
+		checkPageIndex(aPageIndex);
+		return mPageIndex.getPageLayout().getPrinterPageFormat();
+	}
+	
+	@Override
+	public Printable getPrintable(int aPageIndex) {
+		checkPageIndex(aPageIndex);
+		return this;
+	}
+	
+	@Override
+	public int print(Graphics aGraphics, PageFormat aPageFormat, int aPageIndex) throws PrinterException {
+		if( aPageIndex < 0 || aPageIndex >= mPageCount ){
+			return NO_SUCH_PAGE;
+		}
+		
+		int vPage = mFirstPage + aPageIndex;
+		PageRenderEvent vEvent = new PageRenderEvent();
+		vEvent.begin();
+		Graphics2D vGraphics = (Graphics2D) aGraphics.create();
+		try{
+			LineSource vLines = mPageIndex.openPages(mContent, vPage, vPage);
+			try{
+				int vLineCount = mPageIndex.getPageLayout().drawPage(vGraphics, vLines);
+				recordPage(vEvent, aPageIndex, vLineCount);
+			} finally{
+				vLines.close();
+			}
+		} catch(IOException e){
+			PrinterException vException = new PrinterException("Page " + vPage + " could not be drawn: " + e.getMessage());
+			vException.initCause(e);
+			throw vException;
+		} finally{
+			vGraphics.dispose();
+		}
+		
+		return PAGE_EXISTS;
+	}
+	
+	/**
+	 * Records a drawn page in job metrics and as event, if it follows the pages recorded before,
+	 * as the printer job draws every page more than once.
+	 * @param aEvent		{@link PageRenderEvent} begun before drawing.
+	 * @param aPageIndex	Index of page drawn.
+	 * @param aLines		Number of content lines drawn.
+	 */
+	private void recordPage(PageRenderEvent aEvent, int aPageIndex, int aLines){
+		if( aPageIndex <= mRecordedPageIndex ){
+			return;
+		}
+		
+		mRecordedPageIndex = aPageIndex;
+		if( mMetrics != null ){
+			mMetrics.pages(1);
+		}
+		if( aEvent.shouldCommit() ){
+			aEvent.pageIndex = mFirstPage - 1 + aPageIndex;
+			aEvent.lines = aLines;
+			aEvent.commit();
+		}
+	}
+	
+	private void checkPageIndex(int aPageIndex){
+		if( aPageIndex < 0 || aPageIndex >= mPageCount ){
+			throw new IndexOutOfBoundsException("Page index " + aPageIndex + " out of " + mPageCount + " pages");
+		}
+	}
+
+}
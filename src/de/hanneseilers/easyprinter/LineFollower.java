@@ -0,0 +1,167 @@
+package de.hanneseilers.easyprinter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lays out lines of a source, that may never end, on pages as the lines arrive.
+ * A reader thread reads lines and passes them through a bounded queue to the following thread,
+ * that passes every page to a {@link PageSink} as soon as it is full.
+ * A partially filled page is flushed, when its first line is older than the flush timeout,
+ * so no line waits longer than that for a full page. Following lines start a new page.
+ */
+final class LineFollower {
+	
+	private static final String END_OF_LINES = new String();
+	private static final long CANCEL_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+	
+	private final LineSource mLines;
+	private final int mLinesPerPage;
+	private final long mFlushTimeoutNanos;
+	private final PageSink mSink;
+	private final PrintTask mTask;
+	private final BlockingQueue<String> mQueue;
+	private final Thread mReader;
+	private volatile Throwable mFailure = null;
+	
+	/**
+	 * Constructor
+	 * @param aPageLayout			{@link PageLayout} to lay out lines with.
+	 * @param aLines				{@link LineSource} of lines to put on pages, already wrapped.
+	 * 								Closed by reader thread when following ends, as soon as reading returns.
+	 * @param aFlushTimeoutNanos	Maximum age of first line of a partially filled page in ns,
+	 * 								{@code 0} to flush partially filled pages at end of lines only.
+	 * @param aQueuePages			Maximum number of pages of lines read ahead of pages written.
+	 * @param aSink					{@link PageSink} to write pages to.
+	 * @param aTask					{@link PrintTask} to report pages laid out to, that can cancel following.
+	 */
+	LineFollower(PageLayout aPageLayout, LineSource aLines, long aFlushTimeoutNanos, int aQueuePages,
+			PageSink aSink, PrintTask aTask) {
+		mLines = aLines;
+		mLinesPerPage = Math.max(1, aPageLayout.getMaxLines());
+		mFlushTimeoutNanos = Math.max(0, aFlushTimeoutNanos);
+		mSink = aSink;
+		mTask = aTask;
+		mQueue = new ArrayBlockingQueue<String>(mLinesPerPage * aQueuePages);
+		mReader = new Thread(this::read, "EasyPrinter line reader");
+		mReader.setDaemon(true);
+	}
+	
+	/**
+	 * Reads lines until source ends, reading fails or following stops and marks end of lines. Runs on reader thread.
+	 * Any failure is passed to the following thread, so it never waits for lines that are not read.
+	 * The source is closed on this thread, as a reader blocked waiting for input may not be closed by another thread.
+	 */
+	private void read(){
+		try{
+			
+			try{
+				CharSequence vLine;
+				while( (vLine = mLines.nextLine()) != null ){
+					mQueue.put(vLine.toString());
+				}
+			} catch(IOException e){
+				mFailure = e;
+			} catch(RuntimeException e){
+				mFailure = e;
+			} catch(Error e){
+				mFailure = e;
+			}
+			mQueue.put(END_OF_LINES);
+			
+		} catch(InterruptedException e){
+			// following stopped
+		} finally{
+			try {
+				mLines.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	/**
+	 * Follows lines on the calling thread, until the source ends, writing a page fails or the task is cancelled.
+	 * The last partially filled page is written when the source ends, but not if following is cancelled.
+	 * @throws IOException	if reading lines or writing a page failed, or task was cancelled.
+	 */
+	void follow() throws IOException{
+		mReader.start();
+		try{
+			
+			String[] vPage = new String[mLinesPerPage];
+			int vLineCount = 0;
+			int vPageCount = 0;
+			long vFlushTime = 0;
+			while( true ){
+				mTask.checkCancelled();
+				
+				// wait for next line, at most until partially filled page has to be flushed
+				long vWait = CANCEL_CHECK_NANOS;
+				if( vLineCount > 0 && mFlushTimeoutNanos > 0 ){
+					long vRemaining = vFlushTime - System.nanoTime();
+					if( vRemaining <= 0 ){
+						writePage(++vPageCount, vPage, vLineCount);
+						vLineCount = 0;
+						continue;
+					}
+					vWait = Math.min(vWait, vRemaining);
+				}
+				
+				String vLine;
+				try{
+					vLine = mQueue.poll(vWait, TimeUnit.NANOSECONDS);
+				} catch(InterruptedException e){
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while following lines");
+				}
+				if( vLine == null ){
+					continue;
+				}
+				
+				// write last page at end of lines
+				if( vLine == END_OF_LINES ){
+					if( vLineCount > 0 ){
+						writePage(++vPageCount, vPage, vLineCount);
+					}
+					Throwable vFailure = mFailure;
+					if( vFailure instanceof IOException ){
+						throw (IOException) vFailure;
+					}
+					if( vFailure != null ){
+						throw new IOException("Lines could not be read: " + vFailure.getMessage(), vFailure);
+					}
+					return;
+				}
+				
+				if( vLineCount == 0 ){
+					vFlushTime = System.nanoTime() + mFlushTimeoutNanos;
+				}
+				vPage[vLineCount++] = vLine;
+				if( vLineCount == mLinesPerPage ){
+					writePage(++vPageCount, vPage, vLineCount);
+					vLineCount = 0;
+				}
+			}
+			
+		} finally{
+			mReader.interrupt();
+		}
+	}
+	
+	/**
+	 * @param aPage			Page number, starting at {@code 1}.
+	 * @param aLines		Lines of page, reused for next page.
+	 * @param aLineCount	Number of lines of page.
+	 * @throws IOException	if writing page failed or task was cancelled.
+	 */
+	private void writePage(int aPage, String[] aLines, int aLineCount) throws IOException{
+		mTask.pageLaidOut();
+		mSink.writePage(aPage, Arrays.copyOf(aLines, aLineCount));
+	}
+
+}
@@ -0,0 +1,160 @@
+package de.hanneseilers.easyprinter;
+
+import java.util.Arrays;
+
+/**
+ * Index of line start offsets of a text, with lines separated by {@code \n}.
+ * Trailing empty lines are dropped, like {@link String#split(String)} does.
+ * The index is built once in a single pass and stored as {@code int} array, lines are read
+ * through {@link LineSource}s returning views on the text, so iterating lines allocates no objects.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class LineIndex {
+
+	private final String mText;
+	private final int[] mLineStarts;
+	private final int mLineCount;
+	private final int mEnd;
+	
+	/**
+	 * Constructor, indexes lines of a text.
+	 * @param aText	{@link String} of text to index.
+	 */
+	public LineIndex(String aText) {
+		mText = aText;
+		
+		// skip trailing line breaks
+		int vEnd = aText.length();
+		while( vEnd > 0 && aText.charAt(vEnd-1) == '\n' ){
+			vEnd--;
+		}
+		mEnd = vEnd;
+		
+		// text only contains line breaks
+		if( vEnd == 0 && aText.length() > 0 ){
+			mLineStarts = new int[0];
+			mLineCount = 0;
+			return;
+		}
+		
+		int[] vLineStarts = new int[16];
+		int vLineCount = 0;
+		int vStart = 0;
+		while( true ){
+			if( vLineCount == vLineStarts.length ){
+				vLineStarts = Arrays.copyOf(vLineStarts, vLineCount << 1);
+			}
+			vLineStarts[vLineCount++] = vStart;
+			
+			int vLineEnd = aText.indexOf('\n', vStart);
+			if( vLineEnd < 0 || vLineEnd >= vEnd ){
+				break;
+			}
+			vStart = vLineEnd + 1;
+		}
+		
+		mLineStarts = vLineStarts;
+		mLineCount = vLineCount;
+	}
+	
+	/**
+	 * @return	Number of lines.
+	 */
+	public int getLineCount(){
+		return mLineCount;
+	}
+	
+	/**
+	 * @param aLine	Index of line.
+	 * @return	Offset of first character of line in text.
+	 */
+	public int getLineStart(int aLine){
+		checkLine(aLine);
+		return mLineStarts[aLine];
+	}
+	
+	/**
+	 * @param aLine	Index of line.
+	 * @return	Offset after last character of line in text, without line break.
+	 */
+	public int getLineEnd(int aLine){
+		checkLine(aLine);
+		return aLine + 1 < mLineCount ? mLineStarts[aLine+1] - 1 : mEnd;
+	}
+	
+	/**
+	 * @param aLine	Index of line.
+	 * @return	{@link String} of line.
+	 */
+	public String getLine(int aLine){
+		return mText.substring( getLineStart(aLine), getLineEnd(aLine) );
+	}
+	
+	/**
+	 * @return	Indexed {@link String}.
+	 */
+	public String getText(){
+		return mText;
+	}
+	
+	private void checkLine(int aLine){
+		if( aLine < 0 || aLine >= mLineCount ){
+			throw new IndexOutOfBoundsException("Line " + aLine + " out of " + mLineCount + " lines");
+		}
+	}
+	
+	/**
+	 * Opens all lines as source. Returned lines are views, only valid until the next line is read.
+	 * @return	{@link LineSource} of all lines.
+	 */
+	public LineSource openLines(){
+		return openLines(0, mLineCount);
+	}
+	
+	/**
+	 * Opens a range of lines as source. Returned lines are views, only valid until the next line is read.
+	 * @param aFromLine	Index of first line.
+	 * @param aToLine	Index after last line.
+	 * @return	{@link LineSource} of lines in range.
+	 */
+	public LineSource openLines(int aFromLine, int aToLine){
+		if( aFromLine < 0 || aToLine > mLineCount || aFromLine > aToLine ){
+			throw new IndexOutOfBoundsException("Lines " + aFromLine + "-" + aToLine + " out of " + mLineCount + " lines");
+		}
+		
+		return new IndexLineSource(aFromLine, aToLine);
+	}
+	
+	/**
+	 * {@link LineSource} reading indexed lines into a reused view.
+	 */
+	private final class IndexLineSource implements LineSource {
+		
+		private final CharSequenceView mView = new CharSequenceView();
+		private final int mToLine;
+		private int mLine;
+		
+		private IndexLineSource(int aFromLine, int aToLine) {
+			mLine = aFromLine;
+			mToLine = aToLine;
+		}
+		
+		@Override
+		public CharSequence nextLine() {
+			if( mLine >= mToLine ){
+				return null;
+			}
+			
+			int vLine = mLine++;
+			int vEnd = vLine + 1 < mLineCount ? mLineStarts[vLine+1] - 1 : mEnd;
+			return mView.set(mText, mLineStarts[vLine], vEnd);
+		}
+		
+		@Override
+		public void close() {
+			mLine = mToLine;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,18 @@
+package de.hanneseilers.easyprinter;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Source of content lines that is read lazily while pages are filled.
+ * Lines are pulled one by one, so only the lines of the current page have to be kept in memory.
+ */
+public interface LineSource extends Closeable {
+
+	/**
+	 * @return	Next line of content without line terminator, {@code null} if there are no more lines.
+	 * @throws IOException	if reading from underlying source failed.
+	 */
+	public CharSequence nextLine() throws IOException;
+	
+}
@@ -0,0 +1,234 @@
+package de.hanneseilers.easyprinter;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Pattern;
+
+/**
+ * {@link LineSource} reading lines of a memory mapped text file.
+ * Line breaks are searched directly in the mapped file, lines are returned as views on the mapped bytes
+ * without copying them into {@link String}s. Only lines containing non ASCII characters of a multi byte
+ * charset like UTF-8 are decoded into a {@link String}.
+ * A returned line is only valid until the next call of {@link #nextLine()}, call {@code toString()} to keep it.
+ * Supports US-ASCII, UTF-8, ISO-8859-x and windows-125x, which encode ASCII characters as single bytes
+ * and never use ASCII bytes within other characters.
+ * Files larger than the mapping window are mapped window by window.
+ */
+public class MappedFileLineSource implements LineSource {
+
+	private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+	private static final Pattern SUPPORTED_CHARSETS = Pattern.compile("US-ASCII|UTF-8|ISO-8859-\\d+|windows-125\\d");
+	
+	private final FileChannel mChannel;
+	private final long mFileSize;
+	private final Charset mCharset;
+	private final boolean mSingleByteCharset;
+	private final int mWindowSize;
+	private final LineView mLineView = new LineView();
+	
+	private MappedByteBuffer mBuffer = null;
+	private long mBufferStart = 0;
+	private int mPosition = 0;
+	
+	/**
+	 * Constructor
+	 * @param aPath			{@link Path} of text file.
+	 * @param aCharset		{@link Charset} of text file.
+	 * @throws IOException	if file could not be opened.
+	 * @throws IllegalArgumentException	if charset is not supported.
+	 */
+	public MappedFileLineSource(Path aPath, Charset aCharset) throws IOException {
+		this(aPath, aCharset, DEFAULT_WINDOW_SIZE);
+	}
+	
+	/**
+	 * Constructor
+	 * @param aPath			{@link Path} of text file.
+	 * @param aCharset		{@link Charset} of text file.
+	 * @param aWindowSize	Number of bytes mapped at once. Windows are enlarged for longer lines.
+	 * @throws IOException	if file could not be opened.
+	 * @throws IllegalArgumentException	if charset is not supported.
+	 */
+	public MappedFileLineSource(Path aPath, Charset aCharset, int aWindowSize) throws IOException {
+		if( !isSupported(aCharset) ){
+			throw new IllegalArgumentException("Charset " + aCharset + " is not supported");
+		}
+		
+		mCharset = aCharset;
+		mSingleByteCharset = aCharset.equals(StandardCharsets.ISO_8859_1) || aCharset.equals(StandardCharsets.US_ASCII);
+		mWindowSize = Math.max(1, aWindowSize);
+		mChannel = FileChannel.open(aPath, StandardOpenOption.READ);
+		mFileSize = mChannel.size();
+	}
+	
+	/**
+	 * Stateful charsets like ISO-2022-JP encode other characters as ASCII bytes within escape sequences,
+	 * so only known charsets are supported, not all charsets encoding ASCII characters as single bytes.
+	 * @param aCharset	{@link Charset} to check.
+	 * @return	{@code true} if charset can be read by this source.
+	 */
+	public static boolean isSupported(Charset aCharset){
+		return SUPPORTED_CHARSETS.matcher( aCharset.name() ).matches();
+	}
+	
+	/**
+	 * Opens a text file as {@link LineSource}.
+	 * The file is memory mapped, if its charset is supported, and read by a {@link ReaderLineSource} otherwise.
+	 * @param aPath		{@link Path} of text file.
+	 * @param aCharset	{@link Charset} of text file.
+	 * @return	{@link LineSource} of file lines.
+	 * @throws IOException	if file could not be opened.
+	 */
+	static LineSource open(Path aPath, Charset aCharset) throws IOException{
+		if( isSupported(aCharset) ){
+			return new MappedFileLineSource(aPath, aCharset);
+		}
+		
+		return new ReaderLineSource( Files.newBufferedReader(aPath, aCharset) );
+	}
+	
+	/**
+	 * Maps a window of the file.
+	 * @param aStart	File position of window start.
+	 * @param aSize		Minimum window size in bytes.
+	 * @throws IOException
+	 */
+	private void map(long aStart, long aSize) throws IOException{
+		long vSize = Math.min( Math.max(aSize, mWindowSize), mFileSize - aStart );
+		if( vSize > Integer.MAX_VALUE ){
+			vSize = Integer.MAX_VALUE;
+		}
+		
+		mBuffer = mChannel.map(FileChannel.MapMode.READ_ONLY, aStart, vSize);
+		mBufferStart = aStart;
+		mPosition = 0;
+	}
+	
+	@Override
+	public CharSequence nextLine() throws IOException {
+		if( mBuffer == null ){
+			if( mFileSize == 0 ){
+				return null;
+			}
+			map(0, mWindowSize);
+		}
+		
+		if( mBufferStart + mPosition >= mFileSize ){
+			return null;
+		}
+		
+		// search line break
+		int vEnd;
+		boolean vAscii;
+		while( true ){
+			
+			vEnd = mPosition;
+			vAscii = true;
+			final int vLimit = mBuffer.limit();
+			while( vEnd < vLimit ){
+				byte vByte = mBuffer.get(vEnd);
+				if( vByte == '\n' ){
+					break;
+				}
+				if( vByte < 0 ){
+					vAscii = false;
+				}
+				vEnd++;
+			}
+			
+			if( vEnd < vLimit || mBufferStart + vLimit >= mFileSize ){
+				break;
+			}
+			
+			// line crosses window end, map next window starting at line
+			if( mPosition == 0 ){
+				if( vLimit == Integer.MAX_VALUE ){
+					throw new IOException("Line exceeds maximum length of " + Integer.MAX_VALUE + " bytes");
+				}
+				map(mBufferStart, 2L * vLimit);
+			} else {
+				map(mBufferStart + mPosition, mWindowSize);
+			}
+			
+		}
+		
+		// get line without line terminator
+		int vStart = mPosition;
+		mPosition = vEnd + 1;
+		if( vEnd > vStart && mBuffer.get(vEnd - 1) == '\r' ){
+			vEnd--;
+		}
+		
+		if( vAscii || mSingleByteCharset ){
+			mLineView.set(mBuffer, vStart, vEnd - vStart);
+			return mLineView;
+		}
+		
+		byte[] vBytes = new byte[vEnd - vStart];
+		for( int i=0; i < vBytes.length; i++ ){
+			vBytes[i] = mBuffer.get(vStart + i);
+		}
+		return new String(vBytes, mCharset);
+	}
+
+	@Override
+	public void close() throws IOException {
+		mBuffer = null;
+		mChannel.close();
+	}
+	
+	/**
+	 * {@link CharSequence} view on single byte characters of a line in the mapped buffer.
+	 */
+	private static final class LineView implements CharSequence {
+		
+		private MappedByteBuffer mBuffer;
+		private int mOffset;
+		private int mLength;
+		
+		private void set(MappedByteBuffer aBuffer, int aOffset, int aLength){
+			mBuffer = aBuffer;
+			mOffset = aOffset;
+			mLength = aLength;
+		}
+
+		@Override
+		public int length() {
+			return mLength;
+		}
+
+		@Override
+		public char charAt(int aIndex) {
+			if( aIndex < 0 || aIndex >= mLength ){
+				throw new IndexOutOfBoundsException("Index " + aIndex + " out of line length " + mLength);
+			}
+			return (char) (mBuffer.get(mOffset + aIndex) & 0xFF);
+		}
+
+		@Override
+		public CharSequence subSequence(int aStart, int aEnd) {
+			if( aStart < 0 || aEnd > mLength || aStart > aEnd ){
+				throw new IndexOutOfBoundsException("Range " + aStart + "-" + aEnd + " out of line length " + mLength);
+			}
+			
+			char[] vChars = new char[aEnd - aStart];
+			for( int i=0; i < vChars.length; i++ ){
+				vChars[i] = (char) (mBuffer.get(mOffset + aStart + i) & 0xFF);
+			}
+			return new String(vChars);
+		}
+		
+		@Override
+		public String toString() {
+			return subSequence(0, mLength).toString();
+		}
+		
+	}
+
+}
@@ -0,0 +1,73 @@
+package de.hanneseilers.easyprinter;
+
+import java.io.IOException;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * {@link RecursiveAction} encoding and compressing content streams of a range of pages.
+ * Ranges are split in halves until a single page is left, so pages are spread over all pool threads.
+ * An {@link IOException} is thrown as cause of a {@link RuntimeException}.
+ */
+final class PageEncodeTask extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+	
+	private final PageLayout mPageLayout;
+	private final CharSequence[][] mPages;
+	private final int[] mLineCounts;
+	private final byte[][] mContents;
+	private final int mFirstPageIndex;
+	private final int mFrom;
+	private final int mTo;
+	
+	/**
+	 * Constructor
+	 * @param aPageLayout	{@link PageLayout} to encode pages with.
+	 * @param aPages		Content lines of pages.
+	 * @param aLineCounts	Number of content lines of pages.
+	 * @param aContents		Array to store compressed content streams of pages in.
+	 * @param aFirstPageIndex	Index of first page of arrays in document.
+	 * @param aFrom			First page to encode.
+	 * @param aTo			Page after last page to encode.
+	 */
+	PageEncodeTask(PageLayout aPageLayout, CharSequence[][] aPages, int[] aLineCounts, byte[][] aContents,
+			int aFirstPageIndex, int aFrom, int aTo) {
+		mPageLayout = aPageLayout;
+		mPages = aPages;
+		mLineCounts = aLineCounts;
+		mContents = aContents;
+		mFirstPageIndex = aFirstPageIndex;
+		mFrom = aFrom;
+		mTo = aTo;
+	}
+
+	@Override
+	protected void compute() {
+		if( mTo - mFrom > 1 ){
+			int vMiddle = (mFrom + mTo) >>> 1;
+			invokeAll( new PageEncodeTask(mPageLayout, mPages, mLineCounts, mContents, mFirstPageIndex, mFrom, vMiddle),
+					new PageEncodeTask(mPageLayout, mPages, mLineCounts, mContents, mFirstPageIndex, vMiddle, mTo) );
+			return;
+		}
+		
+		ContentEncoder vEncoder = new ContentEncoder();
+		for( int i = mFrom; i < mTo; i++ ){
+			try {
+				PageRenderEvent vEvent = new PageRenderEvent();
+				vEvent.begin();
+				vEncoder.reset();
+				mPageLayout.encodePage(vEncoder, mPages[i], mLineCounts[i]);
+				mContents[i] = PageLayout.compress( vEncoder.toByteArray() );
+				if( vEvent.shouldCommit() ){
+					vEvent.pageIndex = mFirstPageIndex + i;
+					vEvent.lines = mLineCounts[i];
+					vEvent.contentSize = mContents[i].length;
+					vEvent.commit();
+				}
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+}
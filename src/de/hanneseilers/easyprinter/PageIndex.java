@@ -0,0 +1,216 @@
+package de.hanneseilers.easyprinter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Index of pages of content laid out by a {@link PageLayout}, with the content lines of every page.
+ * Built from content lines and the number of lines per page only, and with word wrap
+ * from the wrapped line widths, without creating any document, page or content stream.
+ * Pages are numbered starting at {@code 1}, like {@link EasyPrinter#printPages(int, int)},
+ * content lines starting at {@code 0}, like {@link LineIndex}.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class PageIndex {
+	
+	private final PageLayout mPageLayout;
+	private final int mLineCount;
+	private final int mPageCount;
+	private final int[] mFirstLines;
+	private final int[] mSkippedLines;
+	
+	/**
+	 * Constructor
+	 * @param aPageLayout	{@link PageLayout} of pages.
+	 * @param aLineCount	Number of content lines.
+	 * @param aPageCount	Number of pages.
+	 * @param aFirstLines	First content line of every page, {@code null} if pages are not wrapped.
+	 * @param aSkippedLines	Wrapped lines of first content line on preceding pages for every page,
+	 * 						{@code null} if pages are not wrapped.
+	 */
+	private PageIndex(PageLayout aPageLayout, int aLineCount, int aPageCount, int[] aFirstLines, int[] aSkippedLines) {
+		mPageLayout = aPageLayout;
+		mLineCount = aLineCount;
+		mPageCount = aPageCount;
+		mFirstLines = aFirstLines;
+		mSkippedLines = aSkippedLines;
+	}
+	
+	/**
+	 * Indexes pages of content. Content lines are read once, but neither encoded nor copied.
+	 * @param aPageLayout	{@link PageLayout} to lay out content with.
+	 * @param aContent		{@link LineSource} of content lines, may be {@code null}. Not closed.
+	 * @return	{@link PageIndex} of content.
+	 * @throws IOException	if reading content failed.
+	 */
+	static PageIndex build(PageLayout aPageLayout, LineSource aContent) throws IOException{
+		int vLinesPerPage = Math.max(1, aPageLayout.getMaxLines());
+		if( aContent == null ){
+			return new PageIndex(aPageLayout, 0, 0, null, null);
+		}
+		
+		// without word wrap pages follow from number of lines
+		if( !aPageLayout.isWordWrap() ){
+			int vLineCount = 0;
+			while( aContent.nextLine() != null ){
+				vLineCount++;
+			}
+			return new PageIndex(aPageLayout, vLineCount, (int) ((vLineCount + (long) vLinesPerPage - 1) / vLinesPerPage), null, null);
+		}
+		
+		// count wrapped lines, remembering content line of every page start
+		CountingLineSource vContent = new CountingLineSource(aContent);
+		LineSource vLines = aPageLayout.wrapLines(vContent);
+		int[] vFirstLines = new int[16];
+		int[] vSkippedLines = new int[16];
+		int vPageCount = 0;
+		int vPageLine = 0;
+		int vLastLine = -1;
+		int vWrappedLine = 0;
+		while( vLines.nextLine() != null ){
+			int vLine = vContent.mLineCount - 1;
+			vWrappedLine = vLine == vLastLine ? vWrappedLine + 1 : 0;
+			vLastLine = vLine;
+			
+			if( vPageLine == 0 ){
+				if( vPageCount == vFirstLines.length ){
+					vFirstLines = Arrays.copyOf(vFirstLines, vPageCount << 1);
+					vSkippedLines = Arrays.copyOf(vSkippedLines, vPageCount << 1);
+				}
+				vFirstLines[vPageCount] = vLine;
+				vSkippedLines[vPageCount] = vWrappedLine;
+				vPageCount++;
+			}
+			vPageLine = vPageLine + 1 < vLinesPerPage ? vPageLine + 1 : 0;
+		}
+		
+		return new PageIndex(aPageLayout, vContent.mLineCount, vPageCount,
+				Arrays.copyOf(vFirstLines, vPageCount), Arrays.copyOf(vSkippedLines, vPageCount));
+	}
+	
+	/**
+	 * @return	Number of pages.
+	 */
+	public int getPageCount(){
+		return mPageCount;
+	}
+	
+	/**
+	 * @return	Number of content lines.
+	 */
+	public int getLineCount(){
+		return mLineCount;
+	}
+	
+	/**
+	 * @param aPage	Page number, starting at {@code 1}.
+	 * @return	Index of first content line on page.
+	 */
+	public int getFirstLine(int aPage){
+		checkPage(aPage);
+		if( mFirstLines != null ){
+			return mFirstLines[aPage-1];
+		}
+		
+		return (aPage-1) * getLinesPerPage();
+	}
+	
+	/**
+	 * @param aPage	Page number, starting at {@code 1}.
+	 * @return	Index after last content line on page. With word wrap,
+	 * 			the last content line may be continued on the next page.
+	 */
+	public int getEndLine(int aPage){
+		checkPage(aPage);
+		if( aPage == mPageCount ){
+			return mLineCount;
+		}
+		if( mFirstLines != null ){
+			return mSkippedLines[aPage] > 0 ? mFirstLines[aPage] + 1 : mFirstLines[aPage];
+		}
+		
+		return aPage * getLinesPerPage();
+	}
+	
+	/**
+	 * @param aPage	Page number, starting at {@code 1}.
+	 * @return	Number of wrapped lines of first content line of page, that are on preceding pages.
+	 * 			{@code 0} if page starts with a new content line.
+	 */
+	public int getSkippedLines(int aPage){
+		checkPage(aPage);
+		return mSkippedLines != null ? mSkippedLines[aPage-1] : 0;
+	}
+	
+	/**
+	 * @return	{@link PageLayout} of pages.
+	 */
+	public PageLayout getPageLayout(){
+		return mPageLayout;
+	}
+	
+	/**
+	 * Opens lines of a page range, reading only content lines of pages in range.
+	 * @param aContent	{@link LineIndex} of content text, indexed by this page index.
+	 * @param aFromPage	First page, starting at {@code 1}.
+	 * @param aToPage	Last page, inclusive.
+	 * @return	{@link LineSource} of lines to put on pages, empty for page {@code 1} of empty content.
+	 * @throws IOException	if range starts after last page.
+	 * @throws IllegalArgumentException	if page range is invalid.
+	 */
+	LineSource openPages(LineIndex aContent, int aFromPage, int aToPage) throws IOException{
+		PageLayout.checkPageRange(aFromPage, aToPage);
+		if( aFromPage > mPageCount ){
+			if( aFromPage > 1 ){
+				throw new IOException("Page range " + aFromPage + "-" + aToPage + " starts after last page " + mPageCount);
+			}
+			return aContent.openLines(mLineCount, mLineCount);
+		}
+		
+		long vLimit = (Math.min(aToPage, mPageCount) - aFromPage + 1L) * getLinesPerPage();
+		LineSource vLines = mPageLayout.wrapLines( aContent.openLines(getFirstLine(aFromPage), mLineCount) );
+		return new RangeLineSource(vLines, getSkippedLines(aFromPage), vLimit);
+	}
+	
+	/**
+	 * @return	Number of content lines on one page, at least {@code 1}.
+	 */
+	private int getLinesPerPage(){
+		return Math.max(1, mPageLayout.getMaxLines());
+	}
+	
+	private void checkPage(int aPage){
+		if( aPage < 1 || aPage > mPageCount ){
+			throw new IndexOutOfBoundsException("Page " + aPage + " out of " + mPageCount + " pages");
+		}
+	}
+	
+	/**
+	 * {@link LineSource} counting lines read from another source.
+	 */
+	private static final class CountingLineSource implements LineSource {
+		
+		private final LineSource mSource;
+		private int mLineCount = 0;
+		
+		private CountingLineSource(LineSource aSource) {
+			mSource = aSource;
+		}
+		
+		@Override
+		public CharSequence nextLine() throws IOException {
+			CharSequence vLine = mSource.nextLine();
+			if( vLine != null ){
+				mLineCount++;
+			}
+			return vLine;
+		}
+		
+		@Override
+		public void close() throws IOException {
+			mSource.close();
+		}
+		
+	}
+
+}
@@ -0,0 +1,1053 @@
+package de.hanneseilers.easyprinter;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.print.PageFormat;
+import java.awt.print.Pageable;
+import java.awt.print.Paper;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Deflater;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceStream;
+
+import de.hanneseilers.easyprinter.PrintMetrics.Phase;
+
+/**
+ * Precomputed page layout of an {@link EasyPrinter}.
+ * Page size, borders, fonts, header and footer lines and all of their positions are calculated once
+ * and reused for every rendered document.
+ * Instances are immutable and can be shared between threads to render different content concurrently.
+ * Use {@link EasyPrinter#getPageLayout()} to create a layout.
+ */
+public final class PageLayout {
+	
+	private static final COSName HEADER_FONT_NAME = COSName.getPDFName("FH");
+	private static final COSName FOOTER_FONT_NAME = COSName.getPDFName("FF");
+	private static final COSName CONTENT_FONT_NAME = COSName.getPDFName("F1");
+	private static final COSName TEMPLATE_NAME = COSName.getPDFName("Tpl");
+	private static final int PARALLEL_PAGES_PER_THREAD = 16;
+	
+	private final PDRectangle mPageFormat;
+	private final MemoryUsageSetting mMemoryUsageSetting;
+	
+	private final int mFontSize;
+	private final PDFont mFont;
+	private final int mHeaderFontSize;
+	private final PDFont mHeaderFont;
+	private final int mFooterFontSize;
+	private final PDFont mFooterFont;
+	private final RegisteredFont[] mRegisteredFonts;
+	
+	private final float mBorderTop;
+	private final float mBorderBottom;
+	private final float mBorderLeft;
+	private final float mMaxTextWidth;
+	private final boolean mWordWrap;
+	private final int mMaxLines;
+	
+	private final String[] mHeaderLines;
+	private final float[] mHeaderPositionsX;
+	private final float mHeaderStartY;
+	private final String[] mFooterLines;
+	private final float[] mFooterPositionsX;
+	private final float mFooterStartY;
+	private final float mContentStartY;
+	private final byte[] mNextLineOperator;
+	private volatile byte[] mTemplateContent = null;
+	private volatile byte[] mDigest = null;
+	
+	/**
+	 * Constructor, compiles page layout. Borders are given in pt.
+	 * @param aPageFormat
+	 * @param aMemoryUsageSetting
+	 * @param aFont
+	 * @param aFontSize
+	 * @param aHeaderFont
+	 * @param aHeaderFontSize
+	 * @param aFooterFont
+	 * @param aFooterFontSize
+	 * @param aRegisteredFonts	{@link RegisteredFont}s of content, header and footer font,
+	 * 							{@code null} entries for fonts used as given.
+	 * @param aBorderTop
+	 * @param aBorderBottom
+	 * @param aBorderLeft
+	 * @param aWordWrap		{@code true} to wrap content lines to max text width.
+	 * @param aHeader		{@link String} of header text, may be {@code null}.
+	 * @param aFooter		{@link String} of footer text, may be {@code null}.
+	 */
+	PageLayout(PDRectangle aPageFormat, MemoryUsageSetting aMemoryUsageSetting,
+			PDFont aFont, int aFontSize,
+			PDFont aHeaderFont, int aHeaderFontSize,
+			PDFont aFooterFont, int aFooterFontSize, RegisteredFont[] aRegisteredFonts,
+			float aBorderTop, float aBorderBottom, float aBorderLeft, boolean aWordWrap,
+			String aHeader, String aFooter){
+		
+		LayoutCompileEvent vEvent = new LayoutCompileEvent();
+		vEvent.begin();
+		
+		mPageFormat = new PDRectangle( aPageFormat.getLowerLeftX(), aPageFormat.getLowerLeftY(),
+				aPageFormat.getWidth(), aPageFormat.getHeight() );
+		mMemoryUsageSetting = aMemoryUsageSetting;
+		mFont = aFont;
+		mFontSize = aFontSize;
+		mHeaderFont = aHeaderFont;
+		mHeaderFontSize = aHeaderFontSize;
+		mFooterFont = aFooterFont;
+		mFooterFontSize = aFooterFontSize;
+		mRegisteredFonts = aRegisteredFonts.clone();
+		mBorderTop = aBorderTop;
+		mBorderBottom = aBorderBottom;
+		mBorderLeft = aBorderLeft;
+		mWordWrap = aWordWrap;
+		
+		// page size
+		final PDRectangle vMediaBox = new PDPage(mPageFormat).getMediaBox();
+		final float vPageHeight = vMediaBox.getHeight();
+		mMaxTextWidth = vMediaBox.getWidth() - 2*aBorderLeft;
+		
+		// header and footer lines
+		mHeaderLines = aHeader != null ? aHeader.split("\n") : new String[0];
+		mFooterLines = aFooter != null ? aFooter.split("\n") : new String[0];
+		
+		mHeaderPositionsX = new float[mHeaderLines.length];
+		for( int i=0; i < mHeaderLines.length; i++ ){
+			mHeaderPositionsX[i] = getCenterXPosition(mHeaderLines[i], mFont, mFontSize, mMaxTextWidth);
+		}
+		
+		mFooterPositionsX = new float[mFooterLines.length];
+		for( int i=0; i < mFooterLines.length; i++ ){
+			mFooterPositionsX[i] = getCenterXPosition(mFooterLines[i], mFooterFont, mFooterFontSize, mMaxTextWidth);
+		}
+		
+		// vertical positions
+		mHeaderStartY = vPageHeight - aBorderTop - mHeaderFontSize;
+		mContentStartY = mHeaderStartY - mHeaderLines.length * mHeaderFontSize - mHeaderFontSize;
+		mFooterStartY = aBorderBottom + mFooterFontSize * mFooterLines.length;
+		
+		// max lines on page without borders, header and footer
+		float vLines = vPageHeight;
+		vLines -= (aBorderTop + aBorderBottom);
+		vLines -= (mHeaderLines.length * mHeaderFontSize + mHeaderFontSize);
+		vLines -= (mFooterLines.length * mFooterFontSize + mFontSize);
+		vLines = vLines / mFontSize;
+		mMaxLines = (int)vLines;
+		
+		// line feed operator used after every content line
+		mNextLineOperator = new ContentEncoder().newLineAtOffset(0, -mFontSize).toByteArray();
+		
+		if( vEvent.shouldCommit() ){
+			vEvent.headerLines = mHeaderLines.length;
+			vEvent.footerLines = mFooterLines.length;
+			vEvent.maxLines = mMaxLines;
+			vEvent.commit();
+		}
+	}
+	
+	/**
+	 * Returns a layout with the same settings, but other header and footer text.
+	 * @param aHeader	{@link String} of header text, may be {@code null}.
+	 * @param aFooter	{@link String} of footer text, may be {@code null}.
+	 * @return	New {@link PageLayout} with header and footer.
+	 */
+	public PageLayout withHeaderAndFooter(String aHeader, String aFooter){
+		return new PageLayout(mPageFormat, mMemoryUsageSetting,
+				mFont, mFontSize,
+				mHeaderFont, mHeaderFontSize,
+				mFooterFont, mFooterFontSize, mRegisteredFonts,
+				mBorderTop, mBorderBottom, mBorderLeft, mWordWrap,
+				aHeader, aFooter);
+	}
+	
+	private static float getCenterXPosition(String aText, PDFont aFont, float aFontSize, float aMaxWidth){
+		float vPositionX = 0;
+		try {
+			
+			float vTextWidth = GlyphWidthCache.forFont(aFont).getStringWidth(aText, aFontSize);
+			if( vTextWidth < aMaxWidth ){
+				vPositionX = (aMaxWidth - vTextWidth) / 2.0f;
+			}
+			
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		
+		
+		return vPositionX;
+	}
+	
+	/**
+	 * Returns header and footer operators, encoded once and shared by all documents.
+	 * Header and footer fonts are referenced as {@code /FH} and {@code /FF}.
+	 * Their characters stay in the subsets of fonts that will be subset, so every document using them is subset correctly.
+	 * @return	{@code byte} array of encoded operators, empty if there is no header and footer.
+	 * @throws IOException	if header or footer text could not be encoded.
+	 */
+	private byte[] getTemplateContent() throws IOException{
+		byte[] vTemplateContent = mTemplateContent;
+		if( vTemplateContent == null ){
+			
+			ContentEncoder vEncoder = new ContentEncoder();
+			
+			// add header
+			if( mHeaderLines.length > 0 ){
+				vEncoder.beginText()
+					.setFont(HEADER_FONT_NAME, mHeaderFontSize)
+					.newLineAtOffset(mBorderLeft, mHeaderStartY);
+				for( int i=0; i < mHeaderLines.length; i++ ){
+					vEncoder.newLineAtOffset(mHeaderPositionsX[i], 0)
+						.showText( mHeaderLines[i], GlyphEncodingCache.forFont(mHeaderFont) )
+						.newLineAtOffset(-mHeaderPositionsX[i], -mHeaderFontSize);
+				}
+				vEncoder.endText();
+			}
+			
+			// add footer
+			if( mFooterLines.length > 0 ){
+				vEncoder.beginText()
+					.setFont(FOOTER_FONT_NAME, mFooterFontSize)
+					.newLineAtOffset(mBorderLeft, mFooterStartY);
+				for( int i=0; i < mFooterLines.length; i++ ){
+					vEncoder.newLineAtOffset(mFooterPositionsX[i], 0)
+						.showText( mFooterLines[i], GlyphEncodingCache.forFont(mFooterFont) )
+						.newLineAtOffset(-mFooterPositionsX[i], -mFooterFontSize);
+				}
+				vEncoder.endText();
+			}
+			
+			vTemplateContent = vEncoder.toByteArray();
+			mTemplateContent = vTemplateContent;
+		}
+		
+		return vTemplateContent;
+	}
+	
+	/**
+	 * Creates resources shared by all pages of a document.
+	 * Header and footer are added as form XObject template, that is drawn on every page,
+	 * so its content is stored only once.
+	 * @param aDocument				{@link PDDocument} to create resources for.
+	 * @param aFonts				Content, header and footer {@link PDFont} of document, see {@link #resolveFonts(PDDocument)}.
+	 * @param aTemplateResources	{@link PDResources} of template, see {@link #createTemplateResources(PDFont[])}.
+	 * @return	{@link PDResources} with content font and template.
+	 * @throws IOException
+	 */
+	PDResources createResources(PDDocument aDocument, PDFont[] aFonts, PDResources aTemplateResources) throws IOException{
+		PDResources vResources = new PDResources();
+		vResources.put(CONTENT_FONT_NAME, aFonts[0]);
+		
+		byte[] vTemplateContent = getTemplateContent();
+		if( vTemplateContent.length > 0 ){
+			PDStream vStream = new PDStream(aDocument, new ByteArrayInputStream(vTemplateContent), COSName.FLATE_DECODE);
+			PDFormXObject vTemplate = new PDFormXObject(vStream);
+			vTemplate.setBBox( getPageFormat() );
+			vTemplate.setResources(aTemplateResources);
+			
+			vResources.put(TEMPLATE_NAME, vTemplate);
+		}
+		
+		return vResources;
+	}
+	
+	/**
+	 * Creates resources of header and footer template, can be shared by templates of all layouts using the same fonts.
+	 * @param aFonts	Content, header and footer {@link PDFont} of document, see {@link #resolveFonts(PDDocument)}.
+	 * @return	{@link PDResources} with header and footer font.
+	 */
+	static PDResources createTemplateResources(PDFont[] aFonts){
+		PDResources vTemplateResources = new PDResources();
+		vTemplateResources.put(HEADER_FONT_NAME, aFonts[1]);
+		vTemplateResources.put(FOOTER_FONT_NAME, aFonts[2]);
+		return vTemplateResources;
+	}
+	
+	/**
+	 * Returns content, header and footer font to add to a document.
+	 * Registered fonts are embedded into document as subset, each registered font once,
+	 * see {@link #completeSubsets(PDFont[])}. Fonts that will be subset are added to the fonts to subset of document.
+	 * @param aDocument	{@link PDDocument} to resolve fonts for.
+	 * @return	Array of content, header and footer {@link PDFont}.
+	 * @throws IOException	if a registered font could not be embedded.
+	 */
+	PDFont[] resolveFonts(PDDocument aDocument) throws IOException{
+		return resolveFonts(aDocument, false);
+	}
+	
+	/**
+	 * Returns content, header and footer font to add to a document, see {@link #resolveFonts(PDDocument)}.
+	 * @param aDocument			{@link PDDocument} to resolve fonts for.
+	 * @param aEmbedCompletely	{@code true} to embed registered fonts completely, for documents that text is added to after saving.
+	 * @return	Array of content, header and footer {@link PDFont}.
+	 * @throws IOException	if a registered font could not be embedded.
+	 */
+	PDFont[] resolveFonts(PDDocument aDocument, boolean aEmbedCompletely) throws IOException{
+		PDFont[] vFonts = new PDFont[]{ mFont, mHeaderFont, mFooterFont };
+		for( int i=0; i < vFonts.length; i++ ){
+			if( mRegisteredFonts[i] == null ){
+				continue;
+			}
+			
+			// reuse font instance, if registered font is used more than once
+			for( int j=0; j < i; j++ ){
+				if( mRegisteredFonts[j] == mRegisteredFonts[i] ){
+					vFonts[i] = vFonts[j];
+				}
+			}
+			if( vFonts[i] == mRegisteredFonts[i].getMetricsFont() ){
+				vFonts[i] = mRegisteredFonts[i].createFont(aDocument, !aEmbedCompletely);
+			}
+		}
+		
+		// header and footer characters were added to subsets when template was encoded, see getTemplateContent()
+		for( PDFont vFont : vFonts ){
+			if( vFont.willBeSubset() ){
+				addFontToSubset(aDocument, vFont);
+			}
+		}
+		
+		return vFonts;
+	}
+	
+	/**
+	 * Adds characters encoded with registered fonts to the subsets of their instances of a document.
+	 * Text is encoded with the metrics fonts shared by all documents, so this has to be called
+	 * after all text of the document is encoded, before it is saved.
+	 * @param aFonts	Content, header and footer {@link PDFont} of document, see {@link #resolveFonts(PDDocument)}.
+	 */
+	void completeSubsets(PDFont[] aFonts){
+		for( int i=0; i < aFonts.length; i++ ){
+			if( mRegisteredFonts[i] != null && aFonts[i].willBeSubset() ){
+				mRegisteredFonts[i].addToSubset(aFonts[i]);
+			}
+		}
+	}
+	
+	/**
+	 * Adds a font to the fonts, that are subset when saving a document.
+	 * Content is encoded without {@link PDPageContentStream}, that adds a font when it is set,
+	 * so the font is set once on a content stream, that is not added to the document.
+	 * Characters are added to the subset when encoded, see {@link GlyphEncodingCache}.
+	 * @param aDocument	{@link PDDocument} to add font to.
+	 * @param aFont		{@link PDFont} that will be subset.
+	 * @throws IOException
+	 */
+	private static void addFontToSubset(PDDocument aDocument, PDFont aFont) throws IOException{
+		PDAppearanceStream vStream = new PDAppearanceStream(aDocument);
+		vStream.setResources(new PDResources());
+		PDPageContentStream vContentStream = new PDPageContentStream(aDocument, vStream, OutputStream.nullOutputStream());
+		try{
+			vContentStream.setFont(aFont, 1);
+		} finally{
+			vContentStream.close();
+		}
+	}
+	
+	/**
+	 * Lays out content on pages of a new {@link PDDocument}.
+	 * Each page content stream is closed as soon as the page is full,
+	 * so with a scratch file {@link MemoryUsageSetting} finished pages are moved out of heap.
+	 * If word wrap is enabled, content lines are wrapped to max text width.
+	 * @param aContent	{@link LineSource} of content lines, may be {@code null}. Not closed.
+	 * @return	{@link PDDocument} of all pages. Has to be closed by caller.
+	 * @throws IOException	if reading content or writing document failed.
+	 */
+	public PDDocument createDocument(LineSource aContent) throws IOException{
+		return createDocument(aContent, null);
+	}
+	
+	/**
+	 * Lays out content on pages of a new {@link PDDocument}, encoding pages in parallel.
+	 * Content lines are read in batches of pages, whose content streams are encoded and compressed
+	 * on the pool and then added to the document in order.
+	 * @param aContent	{@link LineSource} of content lines, may be {@code null}. Not closed.
+	 * @param aPool		{@link ForkJoinPool} to encode pages on, {@code null} to encode pages sequentially.
+	 * @return	{@link PDDocument} of all pages. Has to be closed by caller.
+	 * @throws IOException	if reading content or writing document failed.
+	 */
+	public PDDocument createDocument(LineSource aContent, ForkJoinPool aPool) throws IOException{
+		return createDocument(aContent, aPool, null, null);
+	}
+	
+	/**
+	 * Lays out content on pages of a new {@link PDDocument}, reporting every page to a task.
+	 * @param aContent	{@link LineSource} of content lines, may be {@code null}. Not closed.
+	 * @param aPool		{@link ForkJoinPool} to encode pages on, {@code null} to encode pages sequentially.
+	 * @param aTask		{@link PrintTask} to report pages to, may be {@code null}.
+	 * @param aMetrics	{@link JobMetrics} to record phases in, {@code null} if disabled.
+	 * @return	{@link PDDocument} of all pages. Has to be closed by caller.
+	 * @throws IOException	if reading content or writing document failed or task was cancelled.
+	 */
+	PDDocument createDocument(LineSource aContent, ForkJoinPool aPool, PrintTask aTask,
+			JobMetrics aMetrics) throws IOException{
+		return createDocumentOfLines(wrapLines(aContent), aPool, aTask, aMetrics);
+	}
+	
+	/**
+	 * Lays out pages of a page range of content on a new {@link PDDocument}.
+	 * Lines of preceding pages are skipped without encoding them, following lines are not read at all.
+	 * @param aContent	{@link LineSource} of content lines, may be {@code null}. Not closed.
+	 * @param aFromPage	First page to lay out, starting at {@code 1}.
+	 * @param aToPage	Last page to lay out, inclusive.
+	 * @return	{@link PDDocument} of pages of range, less pages if range ends after last page. Has to be closed by caller.
+	 * @throws IOException	if reading content or writing document failed, or range starts after last page.
+	 * @throws IllegalArgumentException	if page range is invalid.
+	 */
+	public PDDocument createDocument(LineSource aContent, int aFromPage, int aToPage) throws IOException{
+		return createDocumentOfLines(openPages(aContent, aFromPage, aToPage), null, null, null);
+	}
+	
+	/**
+	 * Lays out pages of a page range of indexed content on a new {@link PDDocument}.
+	 * Without word wrap the first line of the range is looked up in the index directly,
+	 * so only lines of the range are read. With word wrap lines of preceding pages have to be wrapped,
+	 * but they are not encoded.
+	 * @param aContent	{@link LineIndex} of content text.
+	 * @param aFromPage	First page to lay out, starting at {@code 1}.
+	 * @param aToPage	Last page to lay out, inclusive.
+	 * @return	{@link PDDocument} of pages of range, less pages if range ends after last page. Has to be closed by caller.
+	 * @throws IOException	if writing document failed, or range starts after last page.
+	 * @throws IllegalArgumentException	if page range is invalid.
+	 */
+	public PDDocument createDocument(LineIndex aContent, int aFromPage, int aToPage) throws IOException{
+		return createDocumentOfLines(openPages(aContent, aFromPage, aToPage), null, null, null);
+	}
+	
+	/**
+	 * Counts pages of content and indexes content lines of every page, without creating any document.
+	 * @param aContent	{@link LineSource} of content lines, may be {@code null}. Not closed.
+	 * @return	{@link PageIndex} of content.
+	 * @throws IOException	if reading content failed.
+	 */
+	public PageIndex createPageIndex(LineSource aContent) throws IOException{
+		return PageIndex.build(this, aContent);
+	}
+	
+	/**
+	 * Creates a {@link Pageable} for a {@link java.awt.print.PrinterJob}, that lays out and draws
+	 * every page only when it is printed, directly on the printer graphics. No PDF document is created,
+	 * only the lines of the printed page are read, see {@link PageIndex}.
+	 * @param aContent	{@link LineIndex} of content text.
+	 * @return	{@link Pageable} of all pages of content.
+	 * @throws IOException	if pages of content could not be indexed.
+	 */
+	public Pageable createPageable(LineIndex aContent) throws IOException{
+		PageIndex vPageIndex = createPageIndex(aContent.openLines());
+		return new LayoutPageable(vPageIndex, aContent, 1, vPageIndex.getPageCount(), null);
+	}
+	
+	/**
+	 * Renders content as PDF to a stream, that further content can be appended to
+	 * by incremental updates of the returned document, see {@link AppendableDocument}.
+	 * @param aContent		{@link LineSource} of content lines, may be {@code null}. Not closed.
+	 * @param aOutputStream	{@link OutputStream} to write PDF to. Not closed.
+	 * @return	{@link AppendableDocument} of written document.
+	 * @throws IOException	if reading content or writing PDF failed, or content font will be subset.
+	 */
+	public AppendableDocument createAppendableDocument(LineSource aContent, OutputStream aOutputStream) throws IOException{
+		return AppendableDocument.create(this, wrapLines(aContent), null, aOutputStream);
+	}
+	
+	/**
+	 * Lays out already wrapped lines on pages of a new {@link PDDocument}.
+	 * @param aLines	{@link LineSource} of lines to put on pages as they are, may be {@code null}. Not closed.
+	 * @param aPool		{@link ForkJoinPool} to encode pages on, {@code null} to encode pages sequentially.
+	 * @param aTask		{@link PrintTask} to report pages to, may be {@code null}.
+	 * @param aMetrics	{@link JobMetrics} to record phases in, {@code null} if disabled.
+	 * @return	{@link PDDocument} of all pages. Has to be closed by caller.
+	 * @throws IOException	if reading lines or writing document failed or task was cancelled.
+	 */
+	PDDocument createDocumentOfLines(LineSource aLines, ForkJoinPool aPool, PrintTask aTask,
+			JobMetrics aMetrics) throws IOException{
+		
+		PDDocument vDocument = createEmptyDocument();
+		try{
+			
+			// resources shared by all pages
+			long vStart = aMetrics != null ? aMetrics.start() : 0;
+			PDFont[] vFonts = resolveFonts(vDocument);
+			PDResources vResources = createResources(vDocument, vFonts, createTemplateResources(vFonts));
+			if( aMetrics != null ){
+				aMetrics.phase(Phase.PAGE_COMPOSITION, vStart);
+			}
+			
+			appendPages(vDocument, vResources, aLines, aPool, aTask, aMetrics);
+			completeSubsets(vFonts);
+			
+		} catch(IOException e){
+			vDocument.close();
+			throw e;
+		} catch(RuntimeException e){
+			vDocument.close();
+			throw e;
+		}
+		
+		return vDocument;
+	}
+	
+	/**
+	 * Wraps content lines exceeding max text width, if word wrap is enabled.
+	 * @param aContent	{@link LineSource} of content lines, may be {@code null}.
+	 * @return	{@link LineSource} of lines to put on pages, {@code null} if content is {@code null}.
+	 */
+	LineSource wrapLines(LineSource aContent){
+		if( mWordWrap && aContent != null ){
+			return new WrappingLineSource(aContent, mFont, mFontSize, mMaxTextWidth);
+		}
+		
+		return aContent;
+	}
+	
+	/**
+	 * Opens lines of a page range, wrapped if word wrap is enabled.
+	 * Closing returned source closes content. Reading it fails, if range starts after last page.
+	 * @param aContent	{@link LineSource} of content lines, may be {@code null}.
+	 * @param aFromPage	First page, starting at {@code 1}.
+	 * @param aToPage	Last page, inclusive.
+	 * @return	{@link LineSource} of lines to put on pages, {@code null} if content is {@code null}.
+	 * @throws IllegalArgumentException	if page range is invalid.
+	 */
+	LineSource openPages(LineSource aContent, int aFromPage, int aToPage){
+		checkPageRange(aFromPage, aToPage);
+		LineSource vLines = wrapLines(aContent);
+		if( vLines == null || (aFromPage == 1 && aToPage == Integer.MAX_VALUE) ){
+			return vLines;
+		}
+		
+		long vLinesPerPage = getLinesPerPage();
+		return new RangeLineSource(vLines, (aFromPage - 1) * vLinesPerPage, (aToPage - aFromPage + 1L) * vLinesPerPage);
+	}
+	
+	/**
+	 * Opens lines of a page range of indexed content, wrapped if word wrap is enabled.
+	 * Without word wrap, lines of preceding pages are not read at all.
+	 * @param aContent	{@link LineIndex} of content text.
+	 * @param aFromPage	First page, starting at {@code 1}.
+	 * @param aToPage	Last page, inclusive.
+	 * @return	{@link LineSource} of lines to put on pages.
+	 * @throws IOException	if range starts after last page, without word wrap.
+	 * 						With word wrap reading returned source fails.
+	 * @throws IllegalArgumentException	if page range is invalid.
+	 */
+	LineSource openPages(LineIndex aContent, int aFromPage, int aToPage) throws IOException{
+		if( mWordWrap ){
+			return openPages(aContent.openLines(), aFromPage, aToPage);
+		}
+		
+		checkPageRange(aFromPage, aToPage);
+		long vLinesPerPage = getLinesPerPage();
+		int vLineCount = aContent.getLineCount();
+		if( aFromPage > 1 && (aFromPage - 1) * vLinesPerPage >= vLineCount ){
+			throw new IOException("Page range " + aFromPage + "-" + aToPage + " starts after last page");
+		}
+		int vFromLine = (int) Math.min(vLineCount, (aFromPage - 1) * vLinesPerPage);
+		int vToLine = (int) Math.min(vLineCount, aToPage * vLinesPerPage);
+		return aContent.openLines(vFromLine, vToLine);
+	}
+	
+	/**
+	 * @param aFromPage	First page, starting at {@code 1}.
+	 * @param aToPage	Last page, inclusive.
+	 * @throws IllegalArgumentException	if page range is invalid.
+	 */
+	static void checkPageRange(int aFromPage, int aToPage){
+		if( aFromPage < 1 || aToPage < aFromPage ){
+			throw new IllegalArgumentException("Invalid page range " + aFromPage + "-" + aToPage);
+		}
+	}
+	
+	/**
+	 * @return	New empty {@link PDDocument} using memory usage setting of layout.
+	 */
+	PDDocument createEmptyDocument(){
+		return new PDDocument(mMemoryUsageSetting);
+	}
+	
+	/**
+	 * Lays out lines on new pages appended to a document. Lines are not wrapped, see {@link #wrapLines(LineSource)}.
+	 * @param aDocument		{@link PDDocument} to add pages to.
+	 * @param aResources	{@link PDResources} of pages, see {@link #createResources(PDDocument, PDFont[], PDResources)}.
+	 * @param aLines		{@link LineSource} of lines to put on pages, may be {@code null}. Not closed.
+	 * @param aPool			{@link ForkJoinPool} to encode pages on, {@code null} to encode pages sequentially.
+	 * @param aTask			{@link PrintTask} to report pages to, may be {@code null}.
+	 * @param aMetrics		{@link JobMetrics} to record phases in, {@code null} if disabled.
+	 * @throws IOException	if reading content or writing document failed or task was cancelled.
+	 */
+	void appendPages(PDDocument aDocument, PDResources aResources, LineSource aLines, ForkJoinPool aPool,
+			PrintTask aTask, JobMetrics aMetrics) throws IOException{
+		if( aLines == null ){
+			return;
+		}
+		
+		if( aPool != null ){
+			writePagesParallel(aDocument, aResources, aLines, aPool, aTask, aMetrics);
+		} else {
+			writePages(aDocument, aResources, aLines, aTask, aMetrics);
+		}
+	}
+	
+	/**
+	 * Adds pages to document until content is exhausted, one page after another.
+	 * Lines are encoded as soon as they are read, so sources may reuse line objects.
+	 * @param aDocument		{@link PDDocument} to add pages to.
+	 * @param aResources	{@link PDResources} shared by all pages of document.
+	 * @param aContent		{@link LineSource} of content lines.
+	 * @param aTask			{@link PrintTask} to report pages to, may be {@code null}.
+	 * @param aMetrics		{@link JobMetrics} to record phases in, {@code null} if disabled.
+	 * @throws IOException
+	 */
+	private void writePages(PDDocument aDocument, PDResources aResources, LineSource aContent,
+			PrintTask aTask, JobMetrics aMetrics) throws IOException{
+		ContentEncoder vEncoder = new ContentEncoder();
+		GlyphEncodingCache vCodes = GlyphEncodingCache.forFont(mFont);
+		final int vLinesPerPage = getLinesPerPage();
+		
+		long vStart = aMetrics != null ? aMetrics.start() : 0;
+		CharSequence vLine = aContent.nextLine();
+		while( vLine != null ){
+			PageRenderEvent vEvent = new PageRenderEvent();
+			vEvent.begin();
+			vEncoder.reset();
+			beginPage(vEncoder);
+			int vLineCount = 0;
+			for( ; vLineCount < vLinesPerPage && vLine != null; vLineCount++ ){
+				encodeLine(vEncoder, vCodes, vLine);
+				vLine = aContent.nextLine();
+			}
+			vEncoder.endText();
+			byte[] vContent = compress(vEncoder.toByteArray());
+			if( vEvent.shouldCommit() ){
+				vEvent.pageIndex = aDocument.getNumberOfPages();
+				vEvent.lines = vLineCount;
+				vEvent.contentSize = vContent.length;
+				vEvent.commit();
+			}
+			if( aMetrics != null ){
+				vStart = aMetrics.phase(Phase.CONTENT_ENCODING, vStart);
+			}
+			
+			addPage(aDocument, aResources, vContent);
+			if( aMetrics != null ){
+				vStart = aMetrics.phase(Phase.PAGE_COMPOSITION, vStart);
+				aMetrics.pages(1);
+			}
+			if( aTask != null ){
+				aTask.pageLaidOut();
+			}
+		}
+	}
+	
+	/**
+	 * Adds pages to document until content is exhausted, encoding batches of pages in parallel.
+	 * @param aDocument		{@link PDDocument} to add pages to.
+	 * @param aResources	{@link PDResources} shared by all pages of document.
+	 * @param aContent		{@link LineSource} of content lines.
+	 * @param aPool			{@link ForkJoinPool} to encode pages on.
+	 * @param aTask			{@link PrintTask} to report pages to, may be {@code null}.
+	 * @param aMetrics		{@link JobMetrics} to record phases in, {@code null} if disabled.
+	 * @throws IOException
+	 */
+	private void writePagesParallel(PDDocument aDocument, PDResources aResources, LineSource aContent,
+			ForkJoinPool aPool, PrintTask aTask, JobMetrics aMetrics) throws IOException{
+		
+		final int vBatchSize = aPool.getParallelism() * PARALLEL_PAGES_PER_THREAD;
+		CharSequence[][] vPages = new CharSequence[vBatchSize][getLinesPerPage()];
+		int[] vLineCounts = new int[vBatchSize];
+		byte[][] vContents = new byte[vBatchSize][];
+		
+		boolean vExhausted = false;
+		while( !vExhausted ){
+			int vFirstPageIndex = aDocument.getNumberOfPages();
+			
+			// partition lines of batch into pages
+			long vStart = aMetrics != null ? aMetrics.start() : 0;
+			int vPageCount = 0;
+			while( vPageCount < vBatchSize ){
+				vLineCounts[vPageCount] = readPage(aContent, vPages[vPageCount]);
+				if( vLineCounts[vPageCount] == 0 ){
+					vExhausted = true;
+					break;
+				}
+				vPageCount++;
+			}
+			
+			// encode pages of batch in parallel and add them in order
+			if( aMetrics != null ){
+				vStart = aMetrics.phase(Phase.PAGE_COMPOSITION, vStart);
+			}
+			try{
+				aPool.invoke( new PageEncodeTask(this, vPages, vLineCounts, vContents, vFirstPageIndex, 0, vPageCount) );
+			} catch(RuntimeException e){
+				for( Throwable vCause = e.getCause(); vCause != null; vCause = vCause.getCause() ){
+					if( vCause instanceof IOException )
+						throw (IOException) vCause;
+				}
+				throw e;
+			}
+			if( aMetrics != null ){
+				vStart = aMetrics.phase(Phase.CONTENT_ENCODING, vStart);
+			}
+			
+			for( int i=0; i < vPageCount; i++ ){
+				addPage(aDocument, aResources, vContents[i]);
+				vContents[i] = null;
+				if( aTask != null ){
+					aTask.pageLaidOut();
+				}
+			}
+			if( aMetrics != null ){
+				aMetrics.phase(Phase.PAGE_COMPOSITION, vStart);
+				aMetrics.pages(vPageCount);
+			}
+		}
+	}
+	
+	/**
+	 * Reads content lines of next page. Lines are copied, as sources may reuse line objects.
+	 * @param aContent	{@link LineSource} of content lines.
+	 * @param aLines	Array to store lines in, sized {@link #getLinesPerPage()}.
+	 * @return	Number of lines read, {@code 0} if content is exhausted.
+	 * @throws IOException
+	 */
+	private int readPage(LineSource aContent, CharSequence[] aLines) throws IOException{
+		int vLineCount = 0;
+		while( vLineCount < aLines.length ){
+			CharSequence vLine = aContent.nextLine();
+			if( vLine == null ){
+				break;
+			}
+			aLines[vLineCount++] = vLine.toString();
+		}
+		
+		return vLineCount;
+	}
+	
+	/**
+	 * Encodes content stream of one page: header and footer template and content lines.
+	 * Thread-safe, pages can be encoded concurrently with different encoders.
+	 * @param aEncoder		{@link ContentEncoder} to write operators to.
+	 * @param aLines		Content lines of page.
+	 * @param aLineCount	Number of content lines of page.
+	 * @throws IOException	if content lines could not be encoded.
+	 */
+	void encodePage(ContentEncoder aEncoder, CharSequence[] aLines, int aLineCount) throws IOException{
+		GlyphEncodingCache vCodes = GlyphEncodingCache.forFont(mFont);
+		beginPage(aEncoder);
+		for( int i=0; i < aLineCount; i++ ){
+			encodeLine(aEncoder, vCodes, aLines[i]);
+		}
+		aEncoder.endText();
+	}
+	
+	/**
+	 * Encodes start of a page content stream: header and footer template, content font and position.
+	 * Content lines have to follow, the text object has to be ended by {@link ContentEncoder#endText()}.
+	 * @param aEncoder	{@link ContentEncoder} to write operators to.
+	 * @throws IOException
+	 */
+	private void beginPage(ContentEncoder aEncoder) throws IOException{
+		
+		// add header and footer
+		if( getTemplateContent().length > 0 ){
+			aEncoder.drawXObject(TEMPLATE_NAME);
+		}
+		
+		// set page text font and position
+		aEncoder.beginText()
+			.setFont(CONTENT_FONT_NAME, mFontSize)
+			.newLineAtOffset(mBorderLeft, mContentStartY);
+	}
+	
+	/**
+	 * Encodes a content line and moves to next line.
+	 * @param aEncoder	{@link ContentEncoder} to write operators to.
+	 * @param aCodes	{@link GlyphEncodingCache} of content font.
+	 * @param aLine		{@link CharSequence} of content line.
+	 * @throws IOException
+	 */
+	private void encodeLine(ContentEncoder aEncoder, GlyphEncodingCache aCodes, CharSequence aLine) throws IOException{
+		aEncoder.showText(aLine, aCodes)
+			.write(mNextLineOperator);
+	}
+	
+	/**
+	 * @return	New {@link PageFormat} of page size for printing drawn pages, imageable on the whole page.
+	 */
+	PageFormat getPrinterPageFormat(){
+		Paper vPaper = new Paper();
+		vPaper.setSize(mPageFormat.getWidth(), mPageFormat.getHeight());
+		vPaper.setImageableArea(0, 0, mPageFormat.getWidth(), mPageFormat.getHeight());
+		
+		PageFormat vPageFormat = new PageFormat();
+		vPageFormat.setPaper(vPaper);
+		return vPageFormat;
+	}
+	
+	/**
+	 * Draws one page on a graphics, at the same positions as on PDF pages.
+	 * The graphics transformation has to map pt to device space with the origin
+	 * at the upper left corner of the page, like {@link java.awt.print.Printable} graphics do.
+	 * @param aGraphics	{@link Graphics2D} to draw on, its transformation is changed.
+	 * @param aLines	{@link LineSource} of lines to put on page, lines after one page are not read. Not closed.
+	 * @return	Number of content lines drawn.
+	 * @throws IOException	if reading lines failed or a character is not available in font.
+	 */
+	int drawPage(Graphics2D aGraphics, LineSource aLines) throws IOException{
+		
+		// PDF user space, origin at lower left corner and y axis up
+		aGraphics.translate(-mPageFormat.getLowerLeftX(), mPageFormat.getUpperRightY());
+		aGraphics.scale(1, -1);
+		aGraphics.setColor(Color.BLACK);
+		aGraphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+		
+		// draw header and footer
+		for( int i=0; i < mHeaderLines.length; i++ ){
+			drawText(aGraphics, mHeaderFont, mHeaderFontSize, mHeaderLines[i],
+					mBorderLeft + mHeaderPositionsX[i], mHeaderStartY - i * mHeaderFontSize);
+		}
+		for( int i=0; i < mFooterLines.length; i++ ){
+			drawText(aGraphics, mFooterFont, mFooterFontSize, mFooterLines[i],
+					mBorderLeft + mFooterPositionsX[i], mFooterStartY - i * mFooterFontSize);
+		}
+		
+		// draw content lines
+		final int vLinesPerPage = getLinesPerPage();
+		int vLineCount = 0;
+		CharSequence vLine;
+		for( ; vLineCount < vLinesPerPage && (vLine = aLines.nextLine()) != null; vLineCount++ ){
+			drawText(aGraphics, mFont, mFontSize, vLine, mBorderLeft, mContentStartY - vLineCount * mFontSize);
+		}
+		
+		return vLineCount;
+	}
+	
+	/**
+	 * Draws a line of text with cached glyph outlines, advancing by cached glyph widths.
+	 * @param aGraphics	{@link Graphics2D} in PDF user space.
+	 * @param aFont		{@link PDFont} of text.
+	 * @param aFontSize	Font size in pt.
+	 * @param aText		{@link CharSequence} of text.
+	 * @param aX		Horizontal position of baseline start in pt.
+	 * @param aY		Vertical position of baseline in pt.
+	 * @throws IOException
+	 */
+	private static void drawText(Graphics2D aGraphics, PDFont aFont, float aFontSize, CharSequence aText,
+			float aX, float aY) throws IOException{
+		GlyphOutlineCache vOutlines = GlyphOutlineCache.forFont(aFont);
+		GlyphWidthCache vWidths = GlyphWidthCache.forFont(aFont);
+		AffineTransform vTransform = aGraphics.getTransform();
+		float vScale = aFontSize / 1000f;
+		
+		for( int i=0; i < aText.length(); ){
+			int vCodePoint = Character.codePointAt(aText, i);
+			Shape vOutline = vOutlines.getOutline(vCodePoint);
+			aGraphics.translate(aX, aY);
+			aGraphics.scale(vScale, vScale);
+			aGraphics.fill(vOutline);
+			aGraphics.setTransform(vTransform);
+			
+			aX += vWidths.getWidth(vCodePoint) * vScale;
+			i += Character.charCount(vCodePoint);
+		}
+	}
+	
+	/**
+	 * Adds a new page with already compressed content stream to document.
+	 * @param aDocument			{@link PDDocument} to add page to.
+	 * @param aResources		{@link PDResources} shared by all pages of document.
+	 * @param aCompressedContent	{@code byte} array of flate compressed content stream.
+	 * @throws IOException
+	 */
+	private void addPage(PDDocument aDocument, PDResources aResources, byte[] aCompressedContent) throws IOException{
+		COSStream vStream = aDocument.getDocument().createCOSStream();
+		OutputStream vOutputStream = vStream.createRawOutputStream();
+		try{
+			vOutputStream.write(aCompressedContent);
+		} finally{
+			vOutputStream.close();
+		}
+		vStream.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+		
+		PDPage vPage = new PDPage(mPageFormat);
+		vPage.setResources(aResources);
+		vPage.setContents( new PDStream(vStream) );
+		aDocument.addPage(vPage);
+	}
+	
+	/**
+	 * Compresses content stream data with flate filter.
+	 * @param aData	{@code byte} array of data to compress.
+	 * @return	{@code byte} array of compressed data.
+	 */
+	static byte[] compress(byte[] aData){
+		Deflater vDeflater = new Deflater();
+		try{
+			ByteArrayOutputStream vOutputStream = new ByteArrayOutputStream(aData.length / 2 + 64);
+			byte[] vBuffer = new byte[4096];
+			vDeflater.setInput(aData);
+			vDeflater.finish();
+			while( !vDeflater.finished() ){
+				int vLength = vDeflater.deflate(vBuffer);
+				vOutputStream.write(vBuffer, 0, vLength);
+			}
+			return vOutputStream.toByteArray();
+		} finally{
+			vDeflater.end();
+		}
+	}
+	
+	/**
+	 * @return	Number of content lines on one page, at least {@code 1}.
+	 */
+	private int getLinesPerPage(){
+		return Math.max(1, mMaxLines);
+	}
+	
+	/**
+	 * Renders content as PDF to a stream.
+	 * @param aContent		{@link LineSource} of content lines. Not closed.
+	 * @param aOutputStream	{@link OutputStream} to write PDF to. Not closed.
+	 * @throws IOException	if reading content or writing PDF failed.
+	 */
+	public void render(LineSource aContent, OutputStream aOutputStream) throws IOException{
+		PrintJobEvent vEvent = new PrintJobEvent();
+		vEvent.begin();
+		
+		PrintTask vTask = new PrintTask(null);
+		PDDocument vDocument = createDocument(aContent, null, vTask, null);
+		try{
+			vDocument.save( new BufferedOutputStream(new ProgressOutputStream(aOutputStream, vTask, null)) );
+			vEvent.successful = true;
+		} finally{
+			vDocument.close();
+			if( vEvent.shouldCommit() ){
+				vEvent.kind = PrintJobEvent.RENDER;
+				vEvent.pages = vTask.getPagesLaidOut();
+				vEvent.bytes = vTask.getBytesWritten();
+				vEvent.commit();
+			}
+		}
+	}
+	
+	/**
+	 * Renders content as PDF into memory.
+	 * @param aContent	{@link String} of content text.
+	 * @return	{@code byte} array of PDF document.
+	 * @throws IOException	if writing PDF failed.
+	 */
+	public byte[] renderToBytes(String aContent) throws IOException{
+		ByteArrayOutputStream vOutputStream = new ByteArrayOutputStream();
+		render(new LineIndex(aContent).openLines(), vOutputStream);
+		return vOutputStream.toByteArray();
+	}
+	
+	/**
+	 * @return	{@link Integer} of maximum text lines on one page.
+	 */
+	public int getMaxLines(){
+		return mMaxLines;
+	}
+	
+	/**
+	 * @return	Maximum width of text lines in pt.
+	 */
+	public float getMaxTextWidth(){
+		return mMaxTextWidth;
+	}
+	
+	/**
+	 * @return	{@code true} if content lines are wrapped to max text width.
+	 */
+	public boolean isWordWrap(){
+		return mWordWrap;
+	}
+	
+	/**
+	 * @return	{@link PDRectangle} page format.
+	 */
+	public PDRectangle getPageFormat(){
+		return new PDRectangle( mPageFormat.getLowerLeftX(), mPageFormat.getLowerLeftY(),
+				mPageFormat.getWidth(), mPageFormat.getHeight() );
+	}
+	
+	/**
+	 * Returns SHA-256 digest of all settings affecting rendered pages, computed once.
+	 * Layouts of equal settings have equal digests, also in other JVMs.
+	 * Fonts are identified by their font file if registered, by their name otherwise.
+	 * @return	{@code byte} array of digest, must not be modified.
+	 */
+	byte[] getDigest(){
+		byte[] vDigest = mDigest;
+		if( vDigest == null ){
+			try{
+				
+				MessageDigest vMessageDigest = MessageDigest.getInstance("SHA-256");
+				DataOutputStream vOutputStream = new DataOutputStream(
+						new DigestOutputStream(OutputStream.nullOutputStream(), vMessageDigest) );
+				vOutputStream.writeFloat(mPageFormat.getLowerLeftX());
+				vOutputStream.writeFloat(mPageFormat.getLowerLeftY());
+				vOutputStream.writeFloat(mPageFormat.getWidth());
+				vOutputStream.writeFloat(mPageFormat.getHeight());
+				writeFont(vOutputStream, mFont, mRegisteredFonts[0], mFontSize);
+				writeFont(vOutputStream, mHeaderFont, mRegisteredFonts[1], mHeaderFontSize);
+				writeFont(vOutputStream, mFooterFont, mRegisteredFonts[2], mFooterFontSize);
+				vOutputStream.writeFloat(mBorderTop);
+				vOutputStream.writeFloat(mBorderBottom);
+				vOutputStream.writeFloat(mBorderLeft);
+				vOutputStream.writeBoolean(mWordWrap);
+				writeLines(vOutputStream, mHeaderLines);
+				writeLines(vOutputStream, mFooterLines);
+				vOutputStream.close();
+				vDigest = vMessageDigest.digest();
+				
+			} catch(NoSuchAlgorithmException e){
+				throw new IllegalStateException("SHA-256 not supported", e);
+			} catch(IOException e){
+				throw new IllegalStateException("Digest stream failed", e);
+			}
+			mDigest = vDigest;
+		}
+		
+		return vDigest;
+	}
+	
+	private static void writeFont(DataOutputStream aOutputStream, PDFont aFont, RegisteredFont aRegisteredFont,
+			int aFontSize) throws IOException{
+		writeString(aOutputStream, aRegisteredFont != null ? aRegisteredFont.getPath().toAbsolutePath().toString()
+				: aFont.getClass().getName() + ":" + aFont.getName());
+		aOutputStream.writeInt(aFontSize);
+	}
+	
+	private static void writeLines(DataOutputStream aOutputStream, String[] aLines) throws IOException{
+		aOutputStream.writeInt(aLines.length);
+		for( String vLine : aLines ){
+			writeString(aOutputStream, vLine);
+		}
+	}
+	
+	private static void writeString(DataOutputStream aOutputStream, String aString) throws IOException{
+		aOutputStream.writeInt(aString.length());
+		aOutputStream.writeChars(aString);
+	}
+	
+}
@@ -0,0 +1,33 @@
+package de.hanneseilers.easyprinter;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of encoding and compressing the content stream of a page,
+ * or of drawing a page on the printer graphics.
+ */
+@Name("de.hanneseilers.easyprinter.PageRender")
+@Label("Page Render")
+@Category("EasyPrinter")
+@Description("Encoding and compression of a page content stream, or drawing of a page for the printer")
+@StackTrace(false)
+final class PageRenderEvent extends Event {
+
+	@Label("Page Index")
+	int pageIndex;
+	
+	@Label("Lines")
+	int lines;
+	
+	@Label("Content Size")
+	@Description("Size of compressed content stream, 0 for pages drawn for the printer")
+	@DataAmount
+	long contentSize;
+	
+}
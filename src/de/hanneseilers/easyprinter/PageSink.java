@@ -0,0 +1,20 @@
+package de.hanneseilers.easyprinter;
+
+import java.io.IOException;
+
+/**
+ * Receiver of pages laid out while following content, see {@link EasyPrinter#follow(LineSource, long, java.util.concurrent.TimeUnit, PageSink)}.
+ * Pages are passed one after another on the following thread.
+ */
+public interface PageSink {
+	
+	/**
+	 * Receives a page as soon as it is full, or before if it was flushed.
+	 * @param aPage		Page number, starting at {@code 1}.
+	 * @param aLines	Lines of page, wrapped if word wrap is enabled. Less than {@link PageLayout#getMaxLines()}
+	 * 					if page was flushed before it was full. Can be kept by receiver.
+	 * @throws IOException	if page could not be written, stops following.
+	 */
+	void writePage(int aPage, String[] aLines) throws IOException;
+
+}
@@ -0,0 +1,204 @@
+package de.hanneseilers.easyprinter;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.print.PageFormat;
+import java.awt.print.Pageable;
+import java.awt.print.Printable;
+import java.awt.print.PrinterAbortException;
+import java.awt.print.PrinterException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * {@link Pageable} printing content while it is still read, for content that can only be read once in order.
+ * A composer thread reads lines and composes pages, that are passed to the printing thread through
+ * a bounded queue. The printing thread draws every page on the printer graphics when the
+ * {@link java.awt.print.PrinterJob} requests it, and the printer spools it, while the next pages are composed.
+ * So the first page reaches the printer right after it is composed, and at most a few pages are held in memory.
+ * The number of pages is always reported as unknown. Pages before a requested page are composed and discarded,
+ * so page ranges can be printed, but pages can not be printed again after a following page was requested,
+ * so collated copies have to be made by the printer.
+ */
+final class PipelinedPageable implements Pageable, Printable {
+	
+	private static final String[] END_OF_PAGES = new String[0];
+	
+	private final PageLayout mPageLayout;
+	private final LineSource mLines;
+	private final PrintTask mTask;
+	private final BlockingQueue<String[]> mPages;
+	private final Thread mComposer;
+	private final JobMetrics mMetrics;
+	private volatile Throwable mFailure = null;
+	
+	private int mPageIndex = -1;
+	private String[] mPage = null;
+	private boolean mEndOfPages = false;
+	private int mRecordedPageIndex = -1;
+	
+	/**
+	 * Constructor
+	 * @param aPageLayout	{@link PageLayout} to compose and draw pages with.
+	 * @param aLines		{@link LineSource} of lines to put on pages. Closed by composer thread.
+	 * @param aCapacity		Maximum number of composed pages waiting to be printed.
+	 * @param aTask			{@link PrintTask} to report pages composed to.
+	 * @param aMetrics		{@link JobMetrics} to record pages drawn in, {@code null} if disabled. Used by printing thread only.
+	 */
+	PipelinedPageable(PageLayout aPageLayout, LineSource aLines, int aCapacity, PrintTask aTask, JobMetrics aMetrics) {
+		mPageLayout = aPageLayout;
+		mLines = aLines;
+		mTask = aTask;
+		mPages = new ArrayBlockingQueue<String[]>(aCapacity);
+		mComposer = new Thread(this::compose, "EasyPrinter page composer");
+		mComposer.setDaemon(true);
+		mMetrics = aMetrics;
+	}
+	
+	/**
+	 * Starts composing pages.
+	 */
+	void start(){
+		mComposer.start();
+	}
+	
+	/**
+	 * Stops composing pages, if not all pages were printed. Pages can not be printed afterwards.
+	 */
+	void close(){
+		mComposer.interrupt();
+	}
+	
+	/**
+	 * Composes pages until lines are exhausted or composing failed and marks end of pages. Runs on composer thread.
+	 * Any failure is passed to the printing thread, so it never waits for pages that are not composed.
+	 */
+	private void compose(){
+		try{
+			
+			try{
+				composePages();
+			} catch(IOException e){
+				mFailure = e;
+			} catch(RuntimeException e){
+				mFailure = e;
+			} catch(Error e){
+				mFailure = e;
+			}
+			mPages.put(END_OF_PAGES);
+			
+		} catch(InterruptedException e){
+			// closed before all pages were printed
+		} finally{
+			try {
+				mLines.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	/**
+	 * Composes pages until lines are exhausted, waiting while queue is full.
+	 * @throws IOException	if reading lines failed or task was cancelled.
+	 * @throws InterruptedException	if closed.
+	 */
+	private void composePages() throws IOException, InterruptedException{
+		final int vLinesPerPage = Math.max(1, mPageLayout.getMaxLines());
+		while( true ){
+			String[] vPage = new String[vLinesPerPage];
+			int vLineCount = 0;
+			CharSequence vLine;
+			while( vLineCount < vLinesPerPage && (vLine = mLines.nextLine()) != null ){
+				vPage[vLineCount++] = vLine.toString();
+			}
+			if( vLineCount == 0 ){
+				return;
+			}
+			
+			mPages.put( vLineCount < vLinesPerPage ? Arrays.copyOf(vPage, vLineCount) : vPage );
+			mTask.pageLaidOut();
+		}
+	}
+	
+	@Override
+	public int getNumberOfPages() {
+		return UNKNOWN_NUMBER_OF_PAGES;
+	}
+	
+	@Override
+	public PageFormat getPageFormat(int aPageIndex) {
+		return mPageLayout.getPrinterPageFormat();
+	}
+	
+	@Override
+	public Printable getPrintable(int aPageIndex) {
+		return this;
+	}
+	
+	@Override
+	public int print(Graphics aGraphics, PageFormat aPageFormat, int aPageIndex) throws PrinterException {
+		
+		// take pages up to requested page, waiting until they are composed, pages before a page range are discarded
+		while( mPageIndex < aPageIndex && !mEndOfPages ){
+			String[] vPage;
+			try{
+				vPage = mPages.take();
+			} catch(InterruptedException e){
+				Thread.currentThread().interrupt();
+				throw new PrinterAbortException("Interrupted while waiting for page " + (mPageIndex + 2));
+			}
+			
+			if( vPage == END_OF_PAGES ){
+				mEndOfPages = true;
+				Throwable vFailure = mFailure;
+				if( vFailure != null ){
+					PrinterException vException = new PrinterException("Page " + (mPageIndex + 2) + " could not be composed: " + vFailure.getMessage());
+					vException.initCause(vFailure);
+					throw vException;
+				}
+			} else {
+				mPage = vPage;
+				mPageIndex++;
+			}
+		}
+		
+		if( aPageIndex > mPageIndex ){
+			return NO_SUCH_PAGE;
+		}
+		if( aPageIndex < mPageIndex ){
+			throw new PrinterException("Page " + (aPageIndex + 1) + " requested after page " + (mPageIndex + 1)
+					+ ", pages of content read while printing can only be printed once, so collated copies have to be made by the printer");
+		}
+		
+		// draw current page, it may be requested more than once but is recorded once
+		PageRenderEvent vEvent = new PageRenderEvent();
+		vEvent.begin();
+		Graphics2D vGraphics = (Graphics2D) aGraphics.create();
+		try{
+			int vLineCount = mPageLayout.drawPage(vGraphics, new IteratorLineSource( Arrays.asList(mPage).iterator() ));
+			if( aPageIndex > mRecordedPageIndex ){
+				mRecordedPageIndex = aPageIndex;
+				if( mMetrics != null ){
+					mMetrics.pages(1);
+				}
+				if( vEvent.shouldCommit() ){
+					vEvent.pageIndex = aPageIndex;
+					vEvent.lines = vLineCount;
+					vEvent.commit();
+				}
+			}
+		} catch(IOException e){
+			PrinterException vException = new PrinterException("Page " + (aPageIndex + 1) + " could not be drawn: " + e.getMessage());
+			vException.initCause(e);
+			throw vException;
+		} finally{
+			vGraphics.dispose();
+		}
+		
+		return PAGE_EXISTS;
+	}
+
+}
@@ -0,0 +1,326 @@
+package de.hanneseilers.easyprinter;
+
+import java.awt.print.PrinterJob;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.printing.PDFPageable;
+
+import de.hanneseilers.easyprinter.PrintMetrics.Phase;
+
+/**
+ * Batch of many short documents, like slips, rendered into one PDF document and printed as one print job.
+ * All documents use the settings of one {@link PageLayout}, but may have their own header and footer.
+ * Every document starts on a new page. Fonts and header and footer templates are added
+ * to the PDF only once per batch, so per document overhead is a few pages only.
+ * Use {@link EasyPrinter#createBatch()} to create a batch of current settings.
+ * Instances are not thread-safe.
+ */
+public final class PrintBatch {
+	
+	private final PageLayout mPageLayout;
+	private final Map<List<String>, PageLayout> mPageLayouts = new HashMap<List<String>, PageLayout>();
+	private final List<PageLayout> mDocumentLayouts = new ArrayList<PageLayout>();
+	private final List<String> mDocumentContents = new ArrayList<String>();
+	private PrintMetrics mMetrics = PrintMetrics.NONE;
+	
+	/**
+	 * Constructor
+	 * @param aPageLayout	{@link PageLayout} of documents, its header and footer are used
+	 * 						for documents added without own header and footer.
+	 */
+	public PrintBatch(PageLayout aPageLayout) {
+		mPageLayout = aPageLayout;
+	}
+	
+	/**
+	 * Adds a document using header and footer of batch page layout.
+	 * @param aContent	{@link String} of content text.
+	 * @return	This {@link PrintBatch}.
+	 */
+	public PrintBatch add(String aContent){
+		mDocumentLayouts.add(mPageLayout);
+		mDocumentContents.add(aContent);
+		return this;
+	}
+	
+	/**
+	 * Adds a document with own header and footer.
+	 * Documents with equal header and footer share one page layout and template.
+	 * @param aContent	{@link String} of content text.
+	 * @param aHeader	{@link String} of header text, may be {@code null}.
+	 * @param aFooter	{@link String} of footer text, may be {@code null}.
+	 * @return	This {@link PrintBatch}.
+	 */
+	public PrintBatch add(String aContent, String aHeader, String aFooter){
+		List<String> vKey = Arrays.asList(aHeader, aFooter);
+		PageLayout vPageLayout = mPageLayouts.get(vKey);
+		if( vPageLayout == null ){
+			vPageLayout = mPageLayout.withHeaderAndFooter(aHeader, aFooter);
+			mPageLayouts.put(vKey, vPageLayout);
+		}
+		
+		mDocumentLayouts.add(vPageLayout);
+		mDocumentContents.add(aContent);
+		return this;
+	}
+	
+	/**
+	 * @return	Number of documents in batch.
+	 */
+	public int size(){
+		return mDocumentContents.size();
+	}
+	
+	/**
+	 * Removes all documents from batch.
+	 */
+	public void clear(){
+		mDocumentLayouts.clear();
+		mDocumentContents.clear();
+	}
+	
+	/**
+	 * Lays out all documents on pages of one new {@link PDDocument}.
+	 * Fonts and template resources are shared by all pages, page resources by all documents of a layout.
+	 * @return	{@link PDDocument} of all pages. Has to be closed by caller.
+	 * @throws IOException	if writing document failed.
+	 */
+	public PDDocument createDocument() throws IOException{
+		return createDocument(null);
+	}
+	
+	/**
+	 * Lays out all documents on pages of one new {@link PDDocument}, recording phases.
+	 * @param aMetrics	{@link JobMetrics} to record phases in, {@code null} if disabled.
+	 * @return	{@link PDDocument} of all pages. Has to be closed by caller.
+	 * @throws IOException	if writing document failed.
+	 */
+	private PDDocument createDocument(JobMetrics aMetrics) throws IOException{
+		
+		PDDocument vDocument = mPageLayout.createEmptyDocument();
+		try{
+			
+			PDFont[] vFonts = mPageLayout.resolveFonts(vDocument);
+			PDResources vTemplateResources = PageLayout.createTemplateResources(vFonts);
+			Map<PageLayout, PDResources> vResources = new IdentityHashMap<PageLayout, PDResources>();
+			
+			for( int i=0; i < mDocumentContents.size(); i++ ){
+				long vStart = aMetrics != null ? aMetrics.start() : 0;
+				PageLayout vPageLayout = mDocumentLayouts.get(i);
+				PDResources vPageResources = vResources.get(vPageLayout);
+				if( vPageResources == null ){
+					vPageResources = vPageLayout.createResources(vDocument, vFonts, vTemplateResources);
+					vResources.put(vPageLayout, vPageResources);
+				}
+				if( aMetrics != null ){
+					vStart = aMetrics.phase(Phase.PAGE_COMPOSITION, vStart);
+				}
+				
+				String vContent = mDocumentContents.get(i);
+				if( vContent != null ){
+					LineIndex vLines = new LineIndex(vContent);
+					if( aMetrics != null ){
+						aMetrics.phase(Phase.LINE_SPLITTING, vStart);
+					}
+					vPageLayout.appendPages(vDocument, vPageResources, vPageLayout.wrapLines(vLines.openLines()), null, null, aMetrics);
+				}
+			}
+			mPageLayout.completeSubsets(vFonts);
+			
+		} catch(IOException e){
+			vDocument.close();
+			throw e;
+		} catch(RuntimeException e){
+			vDocument.close();
+			throw e;
+		}
+		
+		return vDocument;
+	}
+	
+	/**
+	 * Prints all documents as one print job.
+	 * @return	{@code true} if printed successfull, {@code false} otherwise.
+	 */
+	public boolean print(){
+		
+		PrintJobEvent vEvent = new PrintJobEvent();
+		vEvent.begin();
+		
+		JobMetrics vMetrics = JobMetrics.create(mMetrics);
+		PDDocument vDocument = null;
+		boolean vPrinted = false;
+		try{
+			
+			// create document
+			vDocument = createDocument(vMetrics);
+			vEvent.pages = vDocument.getNumberOfPages();
+			
+			// print document
+			PrinterJob vPrinterJob = PrinterJob.getPrinterJob();
+			vPrinterJob.setPageable( new PDFPageable(vDocument) );
+			if( vPrinterJob.printDialog() ){
+				long vStart = vMetrics != null ? vMetrics.start() : 0;
+				EasyPrinter.spool(vPrinterJob, vDocument.getNumberOfPages());
+				if( vMetrics != null ){
+					vMetrics.phase(Phase.PRINTING, vStart);
+				}
+				vPrinted = true;
+			}
+			
+		} catch(Exception e){
+			e.printStackTrace();
+		} finally{
+			closeDocument(vDocument);
+			if( vMetrics != null ){
+				vMetrics.complete(vPrinted);
+			}
+			if( vEvent.shouldCommit() ){
+				vEvent.kind = PrintJobEvent.BATCH_PRINT;
+				vEvent.successful = vPrinted;
+				vEvent.commit();
+			}
+		}
+		
+		return vPrinted;
+	}
+	
+	/**
+	 * Renders all documents as one PDF to a stream, without any print dialog or printer.
+	 * @param aOutputStream	{@link OutputStream} to write PDF to. Not closed.
+	 * @return	{@code true} if rendered successfull, {@code false} otherwise.
+	 */
+	public boolean render(OutputStream aOutputStream){
+		
+		PrintJobEvent vEvent = new PrintJobEvent();
+		vEvent.begin();
+		
+		JobMetrics vMetrics = JobMetrics.create(mMetrics);
+		PrintTask vTask = new PrintTask(null);
+		PDDocument vDocument = null;
+		boolean vRendered = false;
+		try{
+			
+			vDocument = createDocument(vMetrics);
+			vEvent.pages = vDocument.getNumberOfPages();
+			
+			long vStart = vMetrics != null ? vMetrics.start() : 0;
+			vDocument.save( new BufferedOutputStream(new ProgressOutputStream(aOutputStream, vTask, vMetrics)) );
+			if( vMetrics != null ){
+				vMetrics.phase(Phase.SERIALIZATION, vStart);
+			}
+			vRendered = true;
+			
+		} catch(Exception e){
+			e.printStackTrace();
+		} finally{
+			closeDocument(vDocument);
+			if( vMetrics != null ){
+				vMetrics.complete(vRendered);
+			}
+			if( vEvent.shouldCommit() ){
+				vEvent.kind = PrintJobEvent.BATCH_RENDER;
+				vEvent.bytes = vTask.getBytesWritten();
+				vEvent.successful = vRendered;
+				vEvent.commit();
+			}
+		}
+		
+		return vRendered;
+	}
+	
+	/**
+	 * Renders all documents as one PDF file, without any print dialog or printer.
+	 * @param aPath	{@link Path} of PDF file to write. Overwritten if exists.
+	 * @return	{@code true} if rendered successfull, {@code false} otherwise.
+	 */
+	public boolean render(Path aPath){
+		
+		OutputStream vOutputStream = null;
+		try{
+			
+			vOutputStream = new BufferedOutputStream( Files.newOutputStream(aPath) );
+			boolean vRendered = render(vOutputStream);
+			vOutputStream.close();
+			vOutputStream = null;
+			return vRendered;
+			
+		} catch(IOException e){
+			e.printStackTrace();
+		} finally{
+			if( vOutputStream != null ){
+				try {
+					vOutputStream.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Renders all documents as one PDF into memory, without any print dialog or printer.
+	 * @return	{@code byte} array of PDF document, {@code null} if rendering failed.
+	 */
+	public byte[] renderToBytes(){
+		ByteArrayOutputStream vOutputStream = new ByteArrayOutputStream();
+		if( render(vOutputStream) ){
+			return vOutputStream.toByteArray();
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Closes a document, may be {@code null}.
+	 * @param aDocument	{@link PDDocument} to close.
+	 */
+	private void closeDocument(PDDocument aDocument){
+		if( aDocument == null )
+			return;
+		
+		try {
+			aDocument.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * @return	{@link PrintMetrics} phases of batch jobs are reported to.
+	 */
+	public PrintMetrics getMetrics(){
+		return mMetrics;
+	}
+	
+	/**
+	 * Sets metrics to report phases, pages and bytes of batch jobs to. Default: {@link PrintMetrics#NONE}.
+	 * @param aMetrics	{@link PrintMetrics} to report to, {@code null} for {@link PrintMetrics#NONE}.
+	 */
+	public void setMetrics(PrintMetrics aMetrics){
+		mMetrics = aMetrics != null ? aMetrics : PrintMetrics.NONE;
+	}
+	
+	/**
+	 * @return	{@link PageLayout} of documents added without own header and footer.
+	 */
+	public PageLayout getPageLayout(){
+		return mPageLayout;
+	}
+
+}
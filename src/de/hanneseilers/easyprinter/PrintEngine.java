@@ -0,0 +1,167 @@
+package de.hanneseilers.easyprinter;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread-safe engine rendering {@link PrintJob}s to PDF on a bounded number of workers.
+ * Jobs are queued up to a fixed capacity, submitting further jobs blocks until a queued job is finished.
+ * Workers are virtual threads if the runtime supports them, a fixed platform thread pool otherwise.
+ */
+public class PrintEngine implements AutoCloseable {
+
+	private final ExecutorService mExecutor;
+	private final boolean mVirtualThreads;
+	private final Semaphore mQueuePermits;
+	private final Semaphore mWorkerPermits;
+	
+	/**
+	 * Constructor
+	 * @param aWorkers			Maximum number of jobs rendered at the same time.
+	 * @param aQueueCapacity	Maximum number of jobs waiting for a worker.
+	 */
+	public PrintEngine(int aWorkers, int aQueueCapacity) {
+		if( aWorkers < 1 || aQueueCapacity < 0 ){
+			throw new IllegalArgumentException("At least one worker and no negative queue capacity required");
+		}
+		
+		ExecutorService vExecutor = createVirtualThreadExecutor();
+		mVirtualThreads = vExecutor != null;
+		mExecutor = mVirtualThreads ? vExecutor : Executors.newFixedThreadPool(aWorkers);
+		mQueuePermits = new Semaphore(aWorkers + aQueueCapacity);
+		mWorkerPermits = new Semaphore(aWorkers);
+	}
+	
+	/**
+	 * Constructor using one worker per available processor and a queue of 16 jobs per worker.
+	 */
+	public PrintEngine() {
+		this(Runtime.getRuntime().availableProcessors(), 16 * Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * Creates an executor starting a virtual thread per task, available since Java 21.
+	 * @return	{@link ExecutorService} of virtual threads, {@code null} if not supported.
+	 */
+	private static ExecutorService createVirtualThreadExecutor(){
+		try{
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch(Exception e){
+			return null;
+		}
+	}
+	
+	/**
+	 * Submits a job, waiting for free queue capacity if queue is full.
+	 * @param aJob	{@link PrintJob} to render.
+	 * @return	{@link CompletableFuture} completed with PDF bytes of job, or exceptionally if rendering failed.
+	 * @throws InterruptedException	if interrupted while waiting for queue capacity.
+	 * @throws RejectedExecutionException	if engine is closed.
+	 */
+	public CompletableFuture<byte[]> submit(PrintJob aJob) throws InterruptedException{
+		mQueuePermits.acquire();
+		return execute(aJob);
+	}
+	
+	/**
+	 * Submits a job, if queue is not full.
+	 * @param aJob	{@link PrintJob} to render.
+	 * @return	{@link CompletableFuture} completed with PDF bytes of job,
+	 * 			or exceptionally with {@link RejectedExecutionException} if queue is full.
+	 */
+	public CompletableFuture<byte[]> trySubmit(PrintJob aJob){
+		if( !mQueuePermits.tryAcquire() ){
+			CompletableFuture<byte[]> vResult = new CompletableFuture<byte[]>();
+			vResult.completeExceptionally( new RejectedExecutionException("Print queue is full") );
+			return vResult;
+		}
+		
+		return execute(aJob);
+	}
+	
+	/**
+	 * Runs job on executor. A queue permit has to be acquired before, it is released when job is done.
+	 * @param aJob	{@link PrintJob} to render.
+	 * @return	{@link CompletableFuture} of job result.
+	 */
+	private CompletableFuture<byte[]> execute(final PrintJob aJob){
+		final CompletableFuture<byte[]> vResult = new CompletableFuture<byte[]>();
+		try{
+			mExecutor.execute(() -> {
+				try{
+					vResult.complete( render(aJob) );
+				} catch(Throwable e){
+					vResult.completeExceptionally(e);
+				} finally{
+					mQueuePermits.release();
+				}
+			});
+		} catch(RejectedExecutionException e){
+			mQueuePermits.release();
+			throw e;
+		}
+		
+		return vResult;
+	}
+	
+	/**
+	 * Renders a job on the current worker thread.
+	 * Virtual threads wait for a worker permit first, to keep number of concurrent renderings bounded.
+	 * @param aJob	{@link PrintJob} to render.
+	 * @return	{@code byte} array of PDF document.
+	 * @throws Exception	if rendering failed.
+	 */
+	private byte[] render(PrintJob aJob) throws Exception{
+		if( mVirtualThreads ){
+			mWorkerPermits.acquire();
+		}
+		
+		LineSource vContent = null;
+		try{
+			vContent = aJob.openContent();
+			ByteArrayOutputStream vOutputStream = new ByteArrayOutputStream();
+			aJob.getPageLayout().render(vContent, vOutputStream);
+			return vOutputStream.toByteArray();
+		} finally{
+			if( vContent != null ){
+				vContent.close();
+			}
+			if( mVirtualThreads ){
+				mWorkerPermits.release();
+			}
+		}
+	}
+	
+	/**
+	 * @return	{@code true} if jobs are rendered on virtual threads.
+	 */
+	public boolean isUsingVirtualThreads() {
+		return mVirtualThreads;
+	}
+	
+	/**
+	 * Stops accepting jobs and waits until all submitted jobs are finished.
+	 * @param aTimeout	Maximum time to wait.
+	 * @param aUnit		{@link TimeUnit} of timeout.
+	 * @return	{@code true} if all jobs finished, {@code false} if timeout elapsed.
+	 * @throws InterruptedException	if interrupted while waiting.
+	 */
+	public boolean shutdown(long aTimeout, TimeUnit aUnit) throws InterruptedException{
+		mExecutor.shutdown();
+		return mExecutor.awaitTermination(aTimeout, aUnit);
+	}
+	
+	/**
+	 * Stops accepting jobs. Submitted jobs are still finished.
+	 */
+	@Override
+	public void close() {
+		mExecutor.shutdown();
+	}
+	
+}
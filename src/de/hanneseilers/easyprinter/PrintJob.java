@@ -0,0 +1,109 @@
+package de.hanneseilers.easyprinter;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+
+/**
+ * Immutable description of a print job: a {@link PageLayout} and the content to render with it.
+ * Content is either a text or a text file, that is opened when the job is rendered.
+ * Jobs can be submitted to a {@link PrintEngine}.
+ */
+public final class PrintJob {
+
+	private final PageLayout mPageLayout;
+	private final String mContent;
+	private final Path mContentPath;
+	private final Charset mContentCharset;
+	private volatile LineIndex mContentIndex = null;
+	
+	/**
+	 * Constructor
+	 * @param aPageLayout		{@link PageLayout} to render content with.
+	 * @param aContent			{@link String} of content text, may be {@code null}.
+	 * @param aContentPath		{@link Path} of content text file, may be {@code null}.
+	 * @param aContentCharset	{@link Charset} of content text file.
+	 */
+	private PrintJob(PageLayout aPageLayout, String aContent, Path aContentPath, Charset aContentCharset) {
+		if( aPageLayout == null ){
+			throw new NullPointerException("Page layout required");
+		}
+		
+		mPageLayout = aPageLayout;
+		mContent = aContent;
+		mContentPath = aContentPath;
+		mContentCharset = aContentCharset;
+	}
+	
+	/**
+	 * Creates a job rendering a text.
+	 * @param aPageLayout	{@link PageLayout} to render content with.
+	 * @param aContent		{@link String} of content text.
+	 * @return	New {@link PrintJob}.
+	 */
+	public static PrintJob forText(PageLayout aPageLayout, String aContent){
+		return new PrintJob(aPageLayout, aContent, null, null);
+	}
+	
+	/**
+	 * Creates a job rendering a text file. The file is read when the job is rendered.
+	 * @param aPageLayout	{@link PageLayout} to render content with.
+	 * @param aContentPath	{@link Path} of content text file.
+	 * @param aCharset		{@link Charset} of content text file.
+	 * @return	New {@link PrintJob}.
+	 */
+	public static PrintJob forFile(PageLayout aPageLayout, Path aContentPath, Charset aCharset){
+		return new PrintJob(aPageLayout, null, aContentPath, aCharset);
+	}
+	
+	/**
+	 * Opens content of job.
+	 * @return	{@link LineSource} of content lines, {@code null} if job has no content.
+	 * @throws IOException	if content file could not be opened.
+	 */
+	LineSource openContent() throws IOException{
+		if( mContentPath != null ){
+			return MappedFileLineSource.open(mContentPath, mContentCharset);
+		}
+		
+		if( mContent != null ){
+			LineIndex vContentIndex = mContentIndex;
+			if( vContentIndex == null ){
+				vContentIndex = new LineIndex(mContent);
+				mContentIndex = vContentIndex;
+			}
+			return vContentIndex.openLines();
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * @return	{@link PageLayout} of job.
+	 */
+	public PageLayout getPageLayout() {
+		return mPageLayout;
+	}
+	
+	/**
+	 * @return	{@link String} of content text, {@code null} if content is a file.
+	 */
+	public String getContent() {
+		return mContent;
+	}
+	
+	/**
+	 * @return	{@link Path} of content text file, {@code null} if content is a text.
+	 */
+	public Path getContentPath() {
+		return mContentPath;
+	}
+	
+	/**
+	 * @return	{@link Charset} of content text file, {@code null} if content is a text.
+	 */
+	public Charset getContentCharset() {
+		return mContentCharset;
+	}
+	
+}
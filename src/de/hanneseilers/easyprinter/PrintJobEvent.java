@@ -0,0 +1,37 @@
+package de.hanneseilers.easyprinter;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of a print or render job, from start of layout to end of printing or writing.
+ */
+@Name("de.hanneseilers.easyprinter.PrintJob")
+@Label("Print Job")
+@Category("EasyPrinter")
+@Description("Layout and printing or rendering of a document")
+final class PrintJobEvent extends Event {
+
+	static final String PRINT = "print";
+	static final String RENDER = "render";
+	static final String BATCH_PRINT = "batch print";
+	static final String BATCH_RENDER = "batch render";
+	
+	@Label("Kind")
+	String kind;
+	
+	@Label("Pages")
+	int pages;
+	
+	@Label("Bytes Written")
+	@DataAmount
+	long bytes;
+	
+	@Label("Successful")
+	boolean successful;
+	
+}
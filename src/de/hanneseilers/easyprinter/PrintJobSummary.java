@@ -0,0 +1,82 @@
+package de.hanneseilers.easyprinter;
+
+import de.hanneseilers.easyprinter.PrintMetrics.Phase;
+
+/**
+ * Summary of a finished print or render job, reported to {@link PrintMetrics#jobCompleted(PrintJobSummary)}.
+ */
+public final class PrintJobSummary {
+
+	private final long[] mPhaseNanos;
+	private final long mTotalNanos;
+	private final int mPages;
+	private final long mBytes;
+	private final boolean mSuccessful;
+	
+	/**
+	 * Constructor
+	 * @param aPhaseNanos	Nanoseconds spent in each {@link Phase}, by ordinal.
+	 * @param aTotalNanos	Nanoseconds from start to end of job.
+	 * @param aPages		Number of pages.
+	 * @param aBytes		Number of PDF bytes written.
+	 * @param aSuccessful	{@code true} if job finished successfull.
+	 */
+	PrintJobSummary(long[] aPhaseNanos, long aTotalNanos, int aPages, long aBytes, boolean aSuccessful) {
+		mPhaseNanos = aPhaseNanos.clone();
+		mTotalNanos = aTotalNanos;
+		mPages = aPages;
+		mBytes = aBytes;
+		mSuccessful = aSuccessful;
+	}
+	
+	/**
+	 * @param aPhase	{@link Phase} to get time of.
+	 * @return	Nanoseconds spent in phase.
+	 */
+	public long getPhaseNanos(Phase aPhase){
+		return mPhaseNanos[aPhase.ordinal()];
+	}
+	
+	/**
+	 * @return	Nanoseconds from start to end of job, including time not spent in any phase, like a print dialog.
+	 */
+	public long getTotalNanos(){
+		return mTotalNanos;
+	}
+	
+	/**
+	 * @return	Number of pages.
+	 */
+	public int getPages(){
+		return mPages;
+	}
+	
+	/**
+	 * @return	Number of PDF bytes written, {@code 0} for print jobs.
+	 */
+	public long getBytes(){
+		return mBytes;
+	}
+	
+	/**
+	 * @return	{@code true} if job finished successfull.
+	 */
+	public boolean isSuccessful(){
+		return mSuccessful;
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder vText = new StringBuilder("PrintJobSummary[");
+		vText.append("successful=").append(mSuccessful)
+			.append(", pages=").append(mPages)
+			.append(", bytes=").append(mBytes)
+			.append(", totalMs=").append(mTotalNanos / 1000000);
+		for( Phase vPhase : Phase.values() ){
+			vText.append(", ").append(vPhase).append("Ms=").append(mPhaseNanos[vPhase.ordinal()] / 1000000);
+		}
+		
+		return vText.append(']').toString();
+	}
+	
+}
@@ -0,0 +1,67 @@
+package de.hanneseilers.easyprinter;
+
+/**
+ * Metrics of the phases of printing and rendering, see {@link EasyPrinter#setMetrics(PrintMetrics)}.
+ * Methods are called on the thread running the job and should return quickly. All methods do nothing by default.
+ * If {@link #NONE} is set, phases are not timed at all.
+ */
+public interface PrintMetrics {
+
+	/**
+	 * Phases of a print job.
+	 */
+	enum Phase {
+		
+		/** Splitting content text into lines. */
+		LINE_SPLITTING,
+		
+		/**
+		 * Partitioning lines into pages and adding pages and their resources to the document.
+		 * If pages are encoded on a render pool, reading lines counts to this phase.
+		 */
+		PAGE_COMPOSITION,
+		
+		/**
+		 * Encoding and compressing page content streams.
+		 * If pages are encoded sequentially, reading and wrapping lines counts to this phase.
+		 */
+		CONTENT_ENCODING,
+		
+		/** Writing the PDF document. */
+		SERIALIZATION,
+		
+		/** Printing the document by {@link java.awt.print.PrinterJob#print()}. */
+		PRINTING
+	}
+	
+	/**
+	 * Metrics doing nothing, the default.
+	 */
+	PrintMetrics NONE = new PrintMetrics() {};
+	
+	/**
+	 * Called after a phase or a part of it, like encoding a single page, is finished.
+	 * @param aPhase	{@link Phase} finished.
+	 * @param aNanos	Duration in nanoseconds.
+	 */
+	default void phaseCompleted(Phase aPhase, long aNanos){}
+	
+	/**
+	 * Called after pages were added to the document.
+	 * @param aPages	Number of pages added.
+	 */
+	default void pagesCompleted(int aPages){}
+	
+	/**
+	 * Called after PDF data was written.
+	 * @param aBytes	Number of bytes written.
+	 */
+	default void bytesWritten(long aBytes){}
+	
+	/**
+	 * Called after a job is finished.
+	 * @param aSummary	{@link PrintJobSummary} of job.
+	 */
+	default void jobCompleted(PrintJobSummary aSummary){}
+	
+}
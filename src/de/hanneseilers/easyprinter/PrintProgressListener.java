@@ -0,0 +1,28 @@
+package de.hanneseilers.easyprinter;
+
+/**
+ * Listener of the progress of a {@link PrintTask}.
+ * Methods are called on the thread running the task, listeners updating a user interface
+ * have to pass progress to the UI thread themselves. All methods do nothing by default.
+ */
+public interface PrintProgressListener {
+
+	/**
+	 * Called after a page was laid out and added to the document.
+	 * @param aPages	Number of pages laid out so far.
+	 */
+	default void pagesLaidOut(int aPages){}
+	
+	/**
+	 * Called after a page was rendered for the printer.
+	 * @param aPages	Number of pages rendered so far.
+	 */
+	default void pagesRendered(int aPages){}
+	
+	/**
+	 * Called after PDF data was written to the output stream of a render task.
+	 * @param aBytes	Number of bytes written so far.
+	 */
+	default void bytesWritten(long aBytes){}
+	
+}
@@ -0,0 +1,175 @@
+package de.hanneseilers.easyprinter;
+
+import java.awt.print.PrinterJob;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Handle of an asynchronous print or render task, see {@link EasyPrinter#printAsync(PrintProgressListener)}.
+ * Reports pages laid out, pages rendered for the printer and bytes written.
+ * Cancellation is cooperative: the task checks for it between pages and stops as soon as possible,
+ * a running printer job is cancelled too. The result is {@code true} if printed or rendered successfull,
+ * {@code false} if the print dialog was cancelled or the task failed.
+ */
+public final class PrintTask implements Future<Boolean> {
+
+	private static final PrintProgressListener NO_LISTENER = new PrintProgressListener() {};
+	
+	private final PrintProgressListener mListener;
+	private final CompletableFuture<Boolean> mResult = new CompletableFuture<Boolean>();
+	private volatile boolean mCancelRequested = false;
+	private volatile PrinterJob mPrinterJob = null;
+	
+	private volatile int mPagesLaidOut = 0;
+	private volatile int mPagesRendered = 0;
+	private volatile long mBytesWritten = 0;
+	
+	/**
+	 * Constructor
+	 * @param aListener	{@link PrintProgressListener} to notify, may be {@code null}.
+	 */
+	PrintTask(PrintProgressListener aListener) {
+		mListener = aListener != null ? aListener : NO_LISTENER;
+	}
+	
+	/**
+	 * @return	{@code true} if cancellation of task was requested.
+	 */
+	boolean isCancelRequested(){
+		return mCancelRequested;
+	}
+	
+	/**
+	 * Throws if task is cancelled. Called between pages.
+	 * @throws InterruptedIOException	if task is cancelled.
+	 */
+	void checkCancelled() throws InterruptedIOException{
+		if( mCancelRequested ){
+			throw new InterruptedIOException("Print task cancelled");
+		}
+	}
+	
+	/**
+	 * Reports a page laid out, called by the thread laying out pages only.
+	 * @throws InterruptedIOException	if task is cancelled.
+	 */
+	void pageLaidOut() throws InterruptedIOException{
+		checkCancelled();
+		int vPages = mPagesLaidOut + 1;
+		mPagesLaidOut = vPages;
+		mListener.pagesLaidOut(vPages);
+	}
+	
+	/**
+	 * Reports a page rendered for the printer. Pages rendered more than once are reported once.
+	 * @param aPageIndex	Index of page rendered.
+	 */
+	void pageRendered(int aPageIndex){
+		if( aPageIndex >= mPagesRendered ){
+			mPagesRendered = aPageIndex + 1;
+			mListener.pagesRendered(aPageIndex + 1);
+		}
+	}
+	
+	/**
+	 * Reports bytes written, called by the thread writing only.
+	 * @param aBytes	Number of bytes written since last report.
+	 * @throws InterruptedIOException	if task is cancelled.
+	 */
+	void bytesWritten(long aBytes) throws InterruptedIOException{
+		checkCancelled();
+		long vBytes = mBytesWritten + aBytes;
+		mBytesWritten = vBytes;
+		mListener.bytesWritten(vBytes);
+	}
+	
+	/**
+	 * Sets printer job of task, cancelled if task is cancelled.
+	 * @param aPrinterJob	{@link PrinterJob} printing document, {@code null} if finished.
+	 */
+	void setPrinterJob(PrinterJob aPrinterJob){
+		mPrinterJob = aPrinterJob;
+		if( aPrinterJob != null && mCancelRequested ){
+			aPrinterJob.cancel();
+		}
+	}
+	
+	/**
+	 * Completes task, ignored if task is cancelled.
+	 * @param aResult	{@code true} if printed or rendered successfull.
+	 */
+	void complete(boolean aResult){
+		mResult.complete(aResult);
+	}
+	
+	/**
+	 * Requests cancellation. The task stops at the next page, the result is cancelled immediately.
+	 * @param aMayInterruptIfRunning	Ignored, tasks are never interrupted.
+	 * @return	{@code true} if task was cancelled, {@code false} if it was already done.
+	 */
+	@Override
+	public boolean cancel(boolean aMayInterruptIfRunning) {
+		mCancelRequested = true;
+		PrinterJob vPrinterJob = mPrinterJob;
+		if( vPrinterJob != null ){
+			vPrinterJob.cancel();
+		}
+		
+		return mResult.cancel(false);
+	}
+	
+	@Override
+	public boolean isCancelled() {
+		return mResult.isCancelled();
+	}
+	
+	@Override
+	public boolean isDone() {
+		return mResult.isDone();
+	}
+	
+	@Override
+	public Boolean get() throws InterruptedException, ExecutionException {
+		return mResult.get();
+	}
+	
+	@Override
+	public Boolean get(long aTimeout, TimeUnit aUnit) throws InterruptedException, ExecutionException, TimeoutException {
+		return mResult.get(aTimeout, aUnit);
+	}
+	
+	/**
+	 * @return	{@link CompletionStage} of task result, to chain actions on completion.
+	 * 			Use {@link #cancel(boolean)} of task to cancel it.
+	 */
+	public CompletionStage<Boolean> toCompletionStage(){
+		return mResult.thenApply(vResult -> vResult);
+	}
+	
+	/**
+	 * @return	Number of pages laid out so far.
+	 */
+	public int getPagesLaidOut() {
+		return mPagesLaidOut;
+	}
+	
+	/**
+	 * @return	Number of pages rendered for the printer so far.
+	 */
+	public int getPagesRendered() {
+		return mPagesRendered;
+	}
+	
+	/**
+	 * @return	Number of PDF bytes written so far by a render task.
+	 */
+	public long getBytesWritten() {
+		return mBytesWritten;
+	}
+	
+}
@@ -0,0 +1,62 @@
+package de.hanneseilers.easyprinter;
+
+import java.awt.Graphics2D;
+import java.awt.print.Book;
+import java.awt.print.Printable;
+import java.awt.print.PrinterException;
+import java.awt.print.PrinterJob;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * {@link PageSink} printing every page as a print job of its own on the default printer, without print dialog.
+ * Pages are drawn directly on the printer graphics like {@link PipelinedPageable} does, no PDF document is created.
+ */
+final class PrinterPageSink implements PageSink {
+	
+	private final PageLayout mPageLayout;
+	private final PrintTask mTask;
+	
+	/**
+	 * Constructor
+	 * @param aPageLayout	{@link PageLayout} to draw pages with.
+	 * @param aTask			{@link PrintTask} to report pages printed to, that cancels printer jobs.
+	 */
+	PrinterPageSink(PageLayout aPageLayout, PrintTask aTask) {
+		mPageLayout = aPageLayout;
+		mTask = aTask;
+	}
+	
+	@Override
+	public void writePage(int aPage, String[] aLines) throws IOException {
+		Printable vPrintable = (aGraphics, aPageFormat, aPageIndex) -> {
+			Graphics2D vGraphics = (Graphics2D) aGraphics.create();
+			try{
+				mPageLayout.drawPage(vGraphics, new IteratorLineSource( Arrays.asList(aLines).iterator() ));
+			} catch(IOException e){
+				PrinterException vException = new PrinterException("Page " + aPage + " could not be drawn: " + e.getMessage());
+				vException.initCause(e);
+				throw vException;
+			} finally{
+				vGraphics.dispose();
+			}
+			return Printable.PAGE_EXISTS;
+		};
+		
+		Book vBook = new Book();
+		vBook.append(vPrintable, mPageLayout.getPrinterPageFormat());
+		PrinterJob vPrinterJob = PrinterJob.getPrinterJob();
+		vPrinterJob.setPageable(vBook);
+		mTask.setPrinterJob(vPrinterJob);
+		try{
+			mTask.checkCancelled();
+			EasyPrinter.spool(vPrinterJob, 1);
+		} catch(PrinterException e){
+			throw new IOException("Page " + aPage + " could not be printed: " + e.getMessage(), e);
+		} finally{
+			mTask.setPrinterJob(null);
+		}
+		mTask.pageRendered(aPage - 1);
+	}
+
+}
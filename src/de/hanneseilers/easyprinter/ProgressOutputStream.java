@@ -0,0 +1,57 @@
+package de.hanneseilers.easyprinter;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * {@link OutputStream} reporting bytes written to a {@link PrintTask} and {@link JobMetrics}.
+ * Writing fails with {@link java.io.InterruptedIOException}, if the task is cancelled.
+ */
+final class ProgressOutputStream extends FilterOutputStream {
+
+	private final PrintTask mTask;
+	private final JobMetrics mMetrics;
+	
+	/**
+	 * Constructor
+	 * @param aOutputStream	{@link OutputStream} to write to. Not closed.
+	 * @param aTask			{@link PrintTask} to report bytes to.
+	 * @param aMetrics		{@link JobMetrics} to record bytes in, {@code null} if disabled.
+	 */
+	ProgressOutputStream(OutputStream aOutputStream, PrintTask aTask, JobMetrics aMetrics) {
+		super(aOutputStream);
+		mTask = aTask;
+		mMetrics = aMetrics;
+	}
+	
+	@Override
+	public void write(int aByte) throws IOException {
+		out.write(aByte);
+		written(1);
+	}
+	
+	@Override
+	public void write(byte[] aBytes, int aOffset, int aLength) throws IOException {
+		out.write(aBytes, aOffset, aLength);
+		written(aLength);
+	}
+	
+	/**
+	 * Reports bytes written.
+	 * @param aBytes	Number of bytes written.
+	 * @throws IOException	if task is cancelled.
+	 */
+	private void written(long aBytes) throws IOException {
+		mTask.bytesWritten(aBytes);
+		if( mMetrics != null ){
+			mMetrics.bytes(aBytes);
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		flush();
+	}
+	
+}
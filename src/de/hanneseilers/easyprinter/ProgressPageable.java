@@ -0,0 +1,59 @@
+package de.hanneseilers.easyprinter;
+
+import java.awt.Graphics;
+import java.awt.print.PageFormat;
+import java.awt.print.Pageable;
+import java.awt.print.Printable;
+import java.awt.print.PrinterAbortException;
+import java.awt.print.PrinterException;
+
+/**
+ * {@link Pageable} reporting pages rendered for the printer to a {@link PrintTask}.
+ * Rendering is aborted between pages, if the task is cancelled.
+ */
+final class ProgressPageable implements Pageable {
+
+	private final Pageable mPageable;
+	private final PrintTask mTask;
+	
+	/**
+	 * Constructor
+	 * @param aPageable	{@link Pageable} to render pages of.
+	 * @param aTask		{@link PrintTask} to report pages to.
+	 */
+	ProgressPageable(Pageable aPageable, PrintTask aTask) {
+		mPageable = aPageable;
+		mTask = aTask;
+	}
+	
+	@Override
+	public int getNumberOfPages() {
+		return mPageable.getNumberOfPages();
+	}
+	
+	@Override
+	public PageFormat getPageFormat(int aPageIndex) {
+		return mPageable.getPageFormat(aPageIndex);
+	}
+	
+	@Override
+	public Printable getPrintable(final int aPageIndex) {
+		final Printable vPrintable = mPageable.getPrintable(aPageIndex);
+		return new Printable() {
+			
+			@Override
+			public int print(Graphics aGraphics, PageFormat aPageFormat, int aIndex) throws PrinterException {
+				if( mTask.isCancelRequested() ){
+					throw new PrinterAbortException("Print task cancelled");
+				}
+				
+				int vResult = vPrintable.print(aGraphics, aPageFormat, aIndex);
+				if( vResult == PAGE_EXISTS ){
+					mTask.pageRendered(aIndex);
+				}
+				return vResult;
+			}
+		};
+	}
+	
+}
@@ -0,0 +1,57 @@
+package de.hanneseilers.easyprinter;
+
+import java.io.IOException;
+
+/**
+ * {@link LineSource} of a range of lines of another source.
+ * Lines before the range are skipped on first read, lines after it are not read.
+ * If lines are skipped, the range has to start before the source ends, reading fails otherwise.
+ */
+final class RangeLineSource implements LineSource {
+	
+	private final LineSource mSource;
+	private long mSkip;
+	private long mRemaining;
+	
+	/**
+	 * Constructor
+	 * @param aSource	{@link LineSource} to read lines from. Closed with this source.
+	 * @param aSkip		Number of lines to skip.
+	 * @param aLimit	Maximum number of lines to read after skipped lines.
+	 */
+	RangeLineSource(LineSource aSource, long aSkip, long aLimit) {
+		mSource = aSource;
+		mSkip = aSkip;
+		mRemaining = aLimit;
+	}
+	
+	/**
+	 * @throws IOException	if reading failed, or source ended before first line of range.
+	 */
+	@Override
+	public CharSequence nextLine() throws IOException {
+		boolean vSkipped = mSkip > 0;
+		for( ; mSkip > 0; mSkip-- ){
+			if( mSource.nextLine() == null ){
+				throw new IOException("Source ended " + mSkip + " lines before range");
+			}
+		}
+		
+		if( mRemaining <= 0 ){
+			return null;
+		}
+		
+		CharSequence vLine = mSource.nextLine();
+		if( vLine == null && vSkipped ){
+			throw new IOException("Source ended right before range");
+		}
+		mRemaining = vLine != null ? mRemaining - 1 : 0;
+		return vLine;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		mSource.close();
+	}
+	
+}
@@ -0,0 +1,36 @@
+package de.hanneseilers.easyprinter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * {@link LineSource} reading lines from a {@link Reader}.
+ * Lines are read on demand, the reader is never loaded completely into memory.
+ */
+public class ReaderLineSource implements LineSource {
+
+	private BufferedReader mReader;
+	
+	/**
+	 * Constructor
+	 * @param aReader	{@link Reader} to read lines from. Closed with this source.
+	 */
+	public ReaderLineSource(Reader aReader) {
+		if( aReader instanceof BufferedReader )
+			mReader = (BufferedReader) aReader;
+		else
+			mReader = new BufferedReader(aReader);
+	}
+	
+	@Override
+	public CharSequence nextLine() throws IOException {
+		return mReader.readLine();
+	}
+
+	@Override
+	public void close() throws IOException {
+		mReader.close();
+	}
+
+}
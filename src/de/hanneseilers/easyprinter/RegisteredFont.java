@@ -0,0 +1,134 @@
+package de.hanneseilers.easyprinter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+
+/**
+ * TrueType font parsed once by the {@link FontRegistry} and shared between threads.
+ * A metrics font, loaded into a private document, is used for measuring and encoding text,
+ * so glyph width and encoding caches are shared by all documents using the font.
+ * Each rendered document gets its own {@link PDType0Font} instance, that is embedded as subset when the document is saved.
+ * As PDFBox closes a font when subsetting it, the instance is loaded from a copy of the font file data held in memory,
+ * not from the shared parsed font.
+ */
+public final class RegisteredFont {
+
+	private final Path mPath;
+	private final TrueTypeFont mTrueTypeFont;
+	private final byte[] mFontData;
+	private final PDType0Font mMetricsFont;
+	
+	/**
+	 * Constructor
+	 * @param aPath			{@link Path} of font file.
+	 * @param aTrueTypeFont	Parsed {@link TrueTypeFont}.
+	 * @param aFontData		{@code byte} array of font file.
+	 * @throws IOException	if font could not be loaded.
+	 */
+	RegisteredFont(Path aPath, TrueTypeFont aTrueTypeFont, byte[] aFontData) throws IOException {
+		mPath = aPath;
+		mTrueTypeFont = aTrueTypeFont;
+		mFontData = aFontData;
+		
+		// document only holding metrics font, never saved or closed
+		PDDocument vMetricsDocument = new PDDocument( MemoryUsageSetting.setupMainMemoryOnly() );
+		mMetricsFont = PDType0Font.load(vMetricsDocument, mTrueTypeFont, false);
+	}
+	
+	/**
+	 * Creates font instance for a document, that is embedded as subset when the document is saved.
+	 * Text is encoded with the metrics font, so its characters have to be added to the subset
+	 * by {@link #addToSubset(PDFont)} before saving.
+	 * @param aDocument	{@link PDDocument} to embed font into.
+	 * @return	{@link PDType0Font} to add to document.
+	 * @throws IOException	if font could not be loaded.
+	 */
+	public PDType0Font createFont(PDDocument aDocument) throws IOException{
+		return createFont(aDocument, true);
+	}
+	
+	/**
+	 * Creates font instance for a document.
+	 * @param aDocument	{@link PDDocument} to embed font into.
+	 * @param aSubset	{@code true} to embed font as subset when document is saved,
+	 * 					{@code false} to embed font file completely, for documents that text is added to after saving.
+	 * @return	{@link PDType0Font} to add to document.
+	 * @throws IOException	if font could not be loaded.
+	 */
+	PDType0Font createFont(PDDocument aDocument, boolean aSubset) throws IOException{
+		FontLoadEvent vEvent = new FontLoadEvent();
+		vEvent.begin();
+		PDType0Font vFont;
+		if( aSubset ){
+			TrueTypeFont vTrueTypeFont = new TTFParser().parse( new ByteArrayInputStream(mFontData) );
+			vFont = PDType0Font.load(aDocument, vTrueTypeFont, true);
+		} else {
+			synchronized (mTrueTypeFont) {
+				vFont = PDType0Font.load(aDocument, mTrueTypeFont, false);
+			}
+			
+			// PDFBox does not write the font file of a font loaded from a parsed font without subsetting
+			PDStream vFontFile = new PDStream(aDocument, new ByteArrayInputStream(mFontData), COSName.FLATE_DECODE);
+			vFontFile.getCOSObject().setInt(COSName.LENGTH1, mFontData.length);
+			vFont.getDescendantFont().getFontDescriptor().setFontFile2(vFontFile);
+		}
+		if( vEvent.shouldCommit() ){
+			vEvent.path = mPath.toString();
+			vEvent.embedded = true;
+			vEvent.subset = aSubset;
+			vEvent.commit();
+		}
+		
+		return vFont;
+	}
+	
+	/**
+	 * Adds all characters encoded with the metrics font to the subset of a font instance.
+	 * These are the characters of all documents encoded with this font so far, so the subset contains
+	 * at least the characters of the document, when called after all its text is encoded.
+	 * @param aFont	{@link PDFont} created by {@link #createFont(PDDocument)}.
+	 */
+	public void addToSubset(PDFont aFont){
+		GlyphEncodingCache.forFont(mMetricsFont).addToSubset(aFont);
+	}
+	
+	/**
+	 * Returns font used for measuring and encoding text. Must not be added to documents,
+	 * use {@link #createFont(PDDocument)} instead.
+	 * @return	{@link PDFont} of font metrics.
+	 */
+	public PDFont getMetricsFont(){
+		return mMetricsFont;
+	}
+	
+	/**
+	 * @return	{@link TrueTypeFont} parsed from font file.
+	 */
+	public TrueTypeFont getTrueTypeFont(){
+		return mTrueTypeFont;
+	}
+	
+	/**
+	 * @return	{@link Path} of font file.
+	 */
+	public Path getPath(){
+		return mPath;
+	}
+	
+	/**
+	 * @return	Name of font.
+	 */
+	public String getName(){
+		return mMetricsFont.getName();
+	}
+	
+}
@@ -0,0 +1,396 @@
+package de.hanneseilers.easyprinter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of rendered PDF documents, keyed by a digest of content, page range and all layout settings,
+ * so repeated renderings of identical documents are served without any layout or encoding.
+ * Documents are kept in a least recently used in-memory tier bounded by bytes, and optionally written
+ * to a directory, that is bounded by bytes as well and reused by later caches of the same directory.
+ * Every document is kept with its number of pages, stored documents are named by key and number of pages.
+ * Use {@link EasyPrinter#setRenderCache(RenderCache)} to enable the cache.
+ * Instances are thread-safe and can be shared by many printers.
+ */
+public final class RenderCache {
+	
+	private static final String FILE_SUFFIX = ".pdf";
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	
+	private final long mMaxMemoryBytes;
+	private final Path mDirectory;
+	private final long mMaxDiskBytes;
+	private final LinkedHashMap<String, Entry> mMemoryEntries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+	private final LinkedHashMap<String, StoredDocument> mDiskEntries = new LinkedHashMap<String, StoredDocument>(16, 0.75f, true);
+	private long mMemoryBytes = 0;
+	private long mDiskBytes = 0;
+	
+	private long mHits = 0;
+	private long mDiskHits = 0;
+	private long mMisses = 0;
+	private long mEvictions = 0;
+	private long mDiskEvictions = 0;
+	
+	/**
+	 * Constructor of a cache without disk tier.
+	 * @param aMaxMemoryBytes	Maximum size of documents kept in memory.
+	 */
+	public RenderCache(long aMaxMemoryBytes) {
+		mMaxMemoryBytes = aMaxMemoryBytes;
+		mDirectory = null;
+		mMaxDiskBytes = 0;
+	}
+	
+	/**
+	 * Constructor of a cache with disk tier. Documents already stored in the directory are reused,
+	 * all of them are written there when rendered. Files not named like stored documents are ignored.
+	 * @param aMaxMemoryBytes	Maximum size of documents kept in memory.
+	 * @param aDirectory		{@link Path} of directory to store documents in, created if it does not exist.
+	 * @param aMaxDiskBytes		Maximum size of documents stored in directory.
+	 * @throws IOException	if directory could not be created or read.
+	 */
+	public RenderCache(long aMaxMemoryBytes, Path aDirectory, long aMaxDiskBytes) throws IOException {
+		mMaxMemoryBytes = aMaxMemoryBytes;
+		mDirectory = aDirectory;
+		mMaxDiskBytes = aMaxDiskBytes;
+		
+		// reuse stored documents, least recently modified first
+		Files.createDirectories(aDirectory);
+		List<Path> vFiles = new ArrayList<Path>();
+		try( DirectoryStream<Path> vStream = Files.newDirectoryStream(aDirectory, "*" + FILE_SUFFIX) ){
+			for( Path vFile : vStream ){
+				vFiles.add(vFile);
+			}
+		}
+		vFiles.sort( (aFirst, aSecond) -> Long.compare(lastModified(aFirst), lastModified(aSecond)) );
+		for( Path vFile : vFiles ){
+			String vName = vFile.getFileName().toString();
+			int vSeparator = vName.lastIndexOf('-');
+			if( vSeparator < 0 ){
+				continue;
+			}
+			
+			int vPageCount;
+			try{
+				vPageCount = Integer.parseInt( vName.substring(vSeparator + 1, vName.length() - FILE_SUFFIX.length()) );
+			} catch(NumberFormatException e){
+				continue;
+			}
+			long vSize = Files.size(vFile);
+			mDiskEntries.put(vName.substring(0, vSeparator), new StoredDocument(vSize, vPageCount));
+			mDiskBytes += vSize;
+		}
+		evictDisk();
+	}
+	
+	/**
+	 * Creates key of a rendered document.
+	 * @param aPageLayout		{@link PageLayout} of document.
+	 * @param aContentDigest	SHA-256 digest of content, see {@link #digest(String)}.
+	 * @param aFromPage			First page rendered, starting at {@code 1}.
+	 * @param aToPage			Last page rendered, inclusive.
+	 * @return	{@link String} of key, a hex encoded SHA-256 digest.
+	 */
+	static String key(PageLayout aPageLayout, byte[] aContentDigest, int aFromPage, int aToPage){
+		MessageDigest vDigest = createDigest();
+		vDigest.update(aPageLayout.getDigest());
+		vDigest.update(aContentDigest);
+		vDigest.update( (aFromPage + "-" + aToPage).getBytes(StandardCharsets.US_ASCII) );
+		
+		byte[] vBytes = vDigest.digest();
+		char[] vKey = new char[vBytes.length * 2];
+		for( int i=0; i < vBytes.length; i++ ){
+			vKey[2*i] = HEX_DIGITS[(vBytes[i] >> 4) & 0xf];
+			vKey[2*i+1] = HEX_DIGITS[vBytes[i] & 0xf];
+		}
+		return new String(vKey);
+	}
+	
+	/**
+	 * @param aContent	{@link String} of content text.
+	 * @return	SHA-256 digest of UTF-8 encoded content.
+	 */
+	static byte[] digest(String aContent){
+		return createDigest().digest( aContent.getBytes(StandardCharsets.UTF_8) );
+	}
+	
+	private static MessageDigest createDigest(){
+		try{
+			return MessageDigest.getInstance("SHA-256");
+		} catch(NoSuchAlgorithmException e){
+			throw new IllegalStateException("SHA-256 not supported", e);
+		}
+	}
+	
+	/**
+	 * Returns a cached document, moving it to memory if it was only stored on disk.
+	 * @param aKey	{@link String} key of document, see {@link #key(PageLayout, byte[], int, int)}.
+	 * @return	{@link Entry} of document, {@code null} if not cached.
+	 */
+	Entry get(String aKey){
+		StoredDocument vStored;
+		synchronized (this) {
+			Entry vEntry = mMemoryEntries.get(aKey);
+			if( vEntry != null ){
+				mHits++;
+				mDiskEntries.get(aKey);
+				return vEntry;
+			}
+			vStored = mDiskEntries.get(aKey);
+			if( vStored == null ){
+				mMisses++;
+				return null;
+			}
+		}
+		
+		// read stored document outside of lock
+		byte[] vDocument = null;
+		try{
+			vDocument = Files.readAllBytes( getFile(aKey, vStored.mPageCount) );
+		} catch(NoSuchFileException e){
+			// removed by another cache of directory
+		} catch(IOException e){
+			e.printStackTrace();
+		}
+		
+		synchronized (this) {
+			if( vDocument == null ){
+				StoredDocument vRemoved = mDiskEntries.remove(aKey);
+				if( vRemoved != null ){
+					mDiskBytes -= vRemoved.mSize;
+				}
+				mMisses++;
+				return null;
+			}
+			
+			mDiskHits++;
+			mDiskEntries.get(aKey);
+			Entry vEntry = new Entry(vDocument, vStored.mPageCount);
+			putMemory(aKey, vEntry);
+			return vEntry;
+		}
+	}
+	
+	/**
+	 * Adds a rendered document, writing it to disk tier if enabled.
+	 * Documents larger than a tier are not kept in that tier.
+	 * @param aKey		{@link String} key of document, see {@link #key(PageLayout, byte[], int, int)}.
+	 * @param aDocument	{@code byte} array of PDF document, must not be modified afterwards.
+	 * @param aPageCount	Number of pages of document.
+	 */
+	void put(String aKey, byte[] aDocument, int aPageCount){
+		boolean vStore = mDirectory != null && aDocument.length <= mMaxDiskBytes;
+		if( vStore ){
+			Path vTempFile = null;
+			try{
+				Path vFile = getFile(aKey, aPageCount);
+				vTempFile = Files.createTempFile(mDirectory, aKey, ".tmp");
+				Files.write(vTempFile, aDocument);
+				try{
+					Files.move(vTempFile, vFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				} catch(AtomicMoveNotSupportedException e){
+					Files.move(vTempFile, vFile, StandardCopyOption.REPLACE_EXISTING);
+				}
+			} catch(IOException e){
+				e.printStackTrace();
+				vStore = false;
+				
+				// remove partially written document, that would never be evicted
+				if( vTempFile != null ){
+					try{
+						Files.deleteIfExists(vTempFile);
+					} catch(IOException e2){
+						e2.printStackTrace();
+					}
+				}
+			}
+		}
+		
+		synchronized (this) {
+			putMemory(aKey, new Entry(aDocument, aPageCount));
+			if( vStore ){
+				StoredDocument vReplaced = mDiskEntries.put(aKey, new StoredDocument(aDocument.length, aPageCount));
+				mDiskBytes += aDocument.length - (vReplaced != null ? vReplaced.mSize : 0);
+				evictDisk();
+			}
+		}
+	}
+	
+	/**
+	 * Adds a document to memory tier, evicting least recently used documents. Requires lock.
+	 * @param aKey		{@link String} key of document.
+	 * @param aEntry	{@link Entry} of document.
+	 */
+	private void putMemory(String aKey, Entry aEntry){
+		if( aEntry.mDocument.length > mMaxMemoryBytes ){
+			return;
+		}
+		
+		Entry vReplaced = mMemoryEntries.put(aKey, aEntry);
+		mMemoryBytes += aEntry.mDocument.length - (vReplaced != null ? vReplaced.mDocument.length : 0);
+		
+		Iterator<Map.Entry<String, Entry>> vEntries = mMemoryEntries.entrySet().iterator();
+		while( mMemoryBytes > mMaxMemoryBytes && vEntries.hasNext() ){
+			mMemoryBytes -= vEntries.next().getValue().mDocument.length;
+			vEntries.remove();
+			mEvictions++;
+		}
+	}
+	
+	/**
+	 * Deletes least recently used documents of disk tier, until it fits its size. Requires lock.
+	 */
+	private void evictDisk(){
+		Iterator<Map.Entry<String, StoredDocument>> vEntries = mDiskEntries.entrySet().iterator();
+		while( mDiskBytes > mMaxDiskBytes && vEntries.hasNext() ){
+			Map.Entry<String, StoredDocument> vEntry = vEntries.next();
+			try{
+				Files.deleteIfExists( getFile(vEntry.getKey(), vEntry.getValue().mPageCount) );
+			} catch(IOException e){
+				e.printStackTrace();
+			}
+			mDiskBytes -= vEntry.getValue().mSize;
+			vEntries.remove();
+			mDiskEvictions++;
+		}
+	}
+	
+	private Path getFile(String aKey, int aPageCount){
+		return mDirectory.resolve(aKey + "-" + aPageCount + FILE_SUFFIX);
+	}
+	
+	private static long lastModified(Path aFile){
+		try{
+			return Files.getLastModifiedTime(aFile).toMillis();
+		} catch(IOException e){
+			return 0;
+		}
+	}
+	
+	/**
+	 * Removes all documents from memory tier. Documents stored on disk are kept.
+	 */
+	public synchronized void clear(){
+		mMemoryEntries.clear();
+		mMemoryBytes = 0;
+	}
+	
+	/**
+	 * @return	Number of documents served from memory.
+	 */
+	public synchronized long getHitCount(){
+		return mHits;
+	}
+	
+	/**
+	 * @return	Number of documents served from disk.
+	 */
+	public synchronized long getDiskHitCount(){
+		return mDiskHits;
+	}
+	
+	/**
+	 * @return	Number of documents not cached, that had to be rendered.
+	 */
+	public synchronized long getMissCount(){
+		return mMisses;
+	}
+	
+	/**
+	 * @return	Number of documents evicted from memory.
+	 */
+	public synchronized long getEvictionCount(){
+		return mEvictions;
+	}
+	
+	/**
+	 * @return	Number of documents deleted from disk.
+	 */
+	public synchronized long getDiskEvictionCount(){
+		return mDiskEvictions;
+	}
+	
+	/**
+	 * @return	Size of documents kept in memory in bytes.
+	 */
+	public synchronized long getMemoryBytes(){
+		return mMemoryBytes;
+	}
+	
+	/**
+	 * @return	Size of documents stored on disk in bytes, {@code 0} without disk tier.
+	 */
+	public synchronized long getDiskBytes(){
+		return mDiskBytes;
+	}
+	
+	@Override
+	public synchronized String toString() {
+		return "RenderCache[hits=" + mHits + ", diskHits=" + mDiskHits + ", misses=" + mMisses
+				+ ", evictions=" + mEvictions + ", diskEvictions=" + mDiskEvictions
+				+ ", memoryBytes=" + mMemoryBytes + ", diskBytes=" + mDiskBytes + "]";
+	}
+	
+	/**
+	 * Cached document with its number of pages.
+	 */
+	static final class Entry {
+		
+		private final byte[] mDocument;
+		private final int mPageCount;
+		
+		/**
+		 * Constructor
+		 * @param aDocument		{@code byte} array of PDF document.
+		 * @param aPageCount	Number of pages of document.
+		 */
+		private Entry(byte[] aDocument, int aPageCount) {
+			mDocument = aDocument;
+			mPageCount = aPageCount;
+		}
+		
+		/**
+		 * @return	{@code byte} array of PDF document, must not be modified.
+		 */
+		byte[] getDocument(){
+			return mDocument;
+		}
+		
+		/**
+		 * @return	Number of pages of document.
+		 */
+		int getPageCount(){
+			return mPageCount;
+		}
+		
+	}
+	
+	/**
+	 * Size and number of pages of a document stored in disk tier.
+	 */
+	private static final class StoredDocument {
+		
+		private final long mSize;
+		private final int mPageCount;
+		
+		private StoredDocument(long aSize, int aPageCount) {
+			mSize = aSize;
+			mPageCount = aPageCount;
+		}
+		
+	}
+
+}
@@ -0,0 +1,25 @@
+package de.hanneseilers.easyprinter;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of printing a document by {@link java.awt.print.PrinterJob#print()}.
+ */
+@Name("de.hanneseilers.easyprinter.Spool")
+@Label("Spool")
+@Category("EasyPrinter")
+@Description("Rendering pages for the printer and spooling them")
+final class SpoolEvent extends Event {
+
+	@Label("Pages")
+	@Description("Number of pages, -1 if unknown when spooling started")
+	int pages;
+	
+	@Label("Printer")
+	String printer;
+	
+}
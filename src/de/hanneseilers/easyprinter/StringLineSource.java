@@ -0,0 +1,53 @@
+package de.hanneseilers.easyprinter;
+
+/**
+ * {@link LineSource} reading lines of a {@link String} separated by {@code \n}.
+ * Trailing empty lines are dropped, like {@link String#split(String)} does.
+ */
+public class StringLineSource implements LineSource {
+
+	private String mText;
+	private int mEnd;
+	private int mPosition = 0;
+	
+	/**
+	 * Constructor
+	 * @param aText	{@link String} of text to read lines from.
+	 */
+	public StringLineSource(String aText) {
+		mText = aText;
+		
+		// skip trailing line breaks
+		mEnd = aText.length();
+		while( mEnd > 0 && aText.charAt(mEnd-1) == '\n' ){
+			mEnd--;
+		}
+		
+		// text only contains line breaks
+		if( mEnd == 0 && aText.length() > 0 )
+			mPosition = 1;
+	}
+	
+	@Override
+	public CharSequence nextLine() {
+		if( mPosition > mEnd ){
+			return null;
+		}
+		
+		int vLineEnd = mText.indexOf('\n', mPosition);
+		if( vLineEnd < 0 || vLineEnd > mEnd ){
+			vLineEnd = mEnd;
+		}
+		
+		String vLine = mText.substring(mPosition, vLineEnd);
+		mPosition = vLineEnd + 1;
+		
+		return vLine;
+	}
+
+	@Override
+	public void close() {
+		mPosition = mEnd + 1;
+	}
+
+}
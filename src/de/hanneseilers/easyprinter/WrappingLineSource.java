@@ -0,0 +1,105 @@
+package de.hanneseilers.easyprinter;
+
+import java.io.IOException;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+
+/**
+ * {@link LineSource} wrapping lines of another source to a maximum width.
+ * Lines are broken at whitespace, words wider than a whole line are broken at any character.
+ * Each line is measured in a single pass summing up cached glyph widths (see {@link GlyphWidthCache}).
+ * Wrapped lines are views on the source line, only valid until the next line is read.
+ */
+public class WrappingLineSource implements LineSource {
+
+	private LineSource mSource;
+	private GlyphWidthCache mWidths;
+	private float mMaxWidth;
+	
+	private CharSequence mLine = null;
+	private int mPosition = 0;
+	private final CharSequenceView mView = new CharSequenceView();
+	
+	/**
+	 * Constructor
+	 * @param aSource	{@link LineSource} of lines to wrap. Closed with this source.
+	 * @param aFont		{@link PDFont} of lines.
+	 * @param aFontSize	Font size of lines in pt.
+	 * @param aMaxWidth	Maximum width of lines in pt.
+	 */
+	public WrappingLineSource(LineSource aSource, PDFont aFont, float aFontSize, float aMaxWidth) {
+		mSource = aSource;
+		mWidths = GlyphWidthCache.forFont(aFont);
+		
+		// max width in glyph space units, so glyph widths have not to be scaled
+		mMaxWidth = aMaxWidth * 1000f / aFontSize;
+	}
+	
+	@Override
+	public CharSequence nextLine() throws IOException {
+		
+		// get next line of source
+		if( mLine == null ){
+			mLine = mSource.nextLine();
+			mPosition = 0;
+			if( mLine == null ){
+				return null;
+			}
+		}
+		
+		final CharSequence vLine = mLine;
+		final int vStart = mPosition;
+		final int vLength = vLine.length();
+		float vWidth = 0;
+		int vBreak = -1;
+		
+		for( int i = vStart; i < vLength; ){
+			int vCodePoint = Character.codePointAt(vLine, i);
+			float vCharWidth = mWidths.getWidth(vCodePoint);
+			
+			if( Character.isWhitespace(vCodePoint) ){
+				// remember possible break, whitespace may exceed width
+				vBreak = i;
+			} else if( vWidth + vCharWidth > mMaxWidth && i > vStart ){
+				
+				if( vBreak > vStart ){
+					// break at last whitespace
+					mPosition = skipWhitespace(vLine, vBreak);
+					if( mPosition >= vLength ){
+						mLine = null;
+					}
+					return mView.set(vLine, vStart, vBreak);
+				}
+				
+				// break inside word
+				mPosition = i;
+				return mView.set(vLine, vStart, i);
+			}
+			
+			vWidth += vCharWidth;
+			i += Character.charCount(vCodePoint);
+		}
+		
+		// rest of line fits
+		mLine = null;
+		return mView.set(vLine, vStart, vLength);
+	}
+	
+	/**
+	 * @param aLine		{@link CharSequence} of line.
+	 * @param aPosition	Start position.
+	 * @return	Position of first non whitespace character at or after position.
+	 */
+	private static int skipWhitespace(CharSequence aLine, int aPosition){
+		while( aPosition < aLine.length() && Character.isWhitespace(aLine.charAt(aPosition)) ){
+			aPosition++;
+		}
+		
+		return aPosition;
+	}
+
+	@Override
+	public void close() throws IOException {
+		mSource.close();
+	}
+
+}